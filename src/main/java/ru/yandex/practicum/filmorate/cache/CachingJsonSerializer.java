@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.function.Function;
+
+class CachingJsonSerializer<T> extends StdSerializer<T> implements ResolvableSerializer, ContextualSerializer {
+
+    private final JsonSerializer<Object> delegate;
+    private final JsonFragmentCache cache;
+    private final Function<T, Long> idGetter;
+
+    CachingJsonSerializer(Class<T> type, JsonSerializer<Object> delegate, JsonFragmentCache cache,
+                          Function<T, Long> idGetter) {
+        super(type);
+        this.delegate = delegate;
+        this.cache = cache;
+        this.idGetter = idGetter;
+    }
+
+    @Override
+    public void serialize(T value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        Long id = idGetter.apply(value);
+        ObjectCodec codec = gen.getCodec();
+
+        if (id == null || codec == null || !(gen instanceof JsonGeneratorImpl)) {
+            delegate.serialize(value, gen, provider);
+            return;
+        }
+
+        String json = cache.get(id);
+
+        if (json == null) {
+            long version = cache.version(id);
+            StringWriter writer = new StringWriter();
+
+            try (JsonGenerator fragmentGen = codec.getFactory().createGenerator(writer)) {
+                delegate.serialize(value, fragmentGen, provider);
+            }
+
+            json = writer.toString();
+            if (cache.unchangedSinceRead()) {
+                cache.put(id, version, json);
+            }
+        }
+
+        gen.writeRawValue(json);
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        if (delegate instanceof ResolvableSerializer resolvable) {
+            resolvable.resolve(provider);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property)
+            throws JsonMappingException {
+        if (!(delegate instanceof ContextualSerializer contextual)) {
+            return this;
+        }
+
+        JsonSerializer<Object> created = (JsonSerializer<Object>) contextual.createContextual(provider, property);
+
+        if (created == delegate) {
+            return this;
+        }
+
+        return new CachingJsonSerializer<>(handledType(), created, cache, idGetter);
+    }
+}
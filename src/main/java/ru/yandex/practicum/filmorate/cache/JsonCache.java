@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class JsonCache {
+
+    private final JsonFragmentCache films = new JsonFragmentCache("f");
+    private final JsonFragmentCache users = new JsonFragmentCache("u");
+
+    public JsonFragmentCache films() {
+        return films;
+    }
+
+    public JsonFragmentCache users() {
+        return users;
+    }
+}
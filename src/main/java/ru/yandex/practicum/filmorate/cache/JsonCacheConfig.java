@@ -0,0 +1,42 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+@Configuration
+public class JsonCacheConfig {
+
+    @Bean
+    public SimpleModule jsonCacheModule(JsonCache jsonCache) {
+        SimpleModule module = new SimpleModule("filmorate-json-cache");
+
+        module.setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc,
+                                                      JsonSerializer<?> serializer) {
+                JsonSerializer<Object> delegate = (JsonSerializer<Object>) serializer;
+                Class<?> type = beanDesc.getBeanClass();
+
+                if (type == Film.class) {
+                    return new CachingJsonSerializer<>(Film.class, delegate, jsonCache.films(), Film::getId);
+                }
+
+                if (type == User.class) {
+                    return new CachingJsonSerializer<>(User.class, delegate, jsonCache.users(), User::getId);
+                }
+
+                return serializer;
+            }
+        });
+
+        return module;
+    }
+}
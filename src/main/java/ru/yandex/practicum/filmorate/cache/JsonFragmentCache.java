@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Версионированный кэш сериализованного JSON сущностей одного типа.
+ * Фрагмент отдаётся только если его версия совпадает с текущей версией сущности.
+ * <p>
+ * Сохраняется фрагмент, только если сервис отметил начало чтения через {@link #beforeRead()} и с тех
+ * пор ни одна сущность не менялась: иначе объект, прочитанный до изменения, попал бы в кэш под новой
+ * версией. Отметка хранится в атрибутах запроса, поэтому вне HTTP-запроса фрагменты не сохраняются.
+ * <p>
+ * Версия заводится, когда сервис впервые записывает сущность, и сервисы вызывают {@link #invalidate(Long)}
+ * только для существующих сущностей. Удаления сущностей нет, поэтому записей в карте версий не больше,
+ * чем сущностей, а наличие версии означает, что сущность есть: по нему ETag отдаётся без обращения к хранилищу.
+ */
+public class JsonFragmentCache {
+
+    private final String tagPrefix;
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    private final Map<Long, Fragment> fragments = new ConcurrentHashMap<>();
+    private final AtomicLong globalVersion = new AtomicLong();
+    private final String readStampAttribute;
+
+    public JsonFragmentCache(String name) {
+        this.tagPrefix = name + Long.toHexString(System.currentTimeMillis());
+        this.readStampAttribute = JsonFragmentCache.class.getName() + "." + name;
+    }
+
+    public void beforeRead() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(readStampAttribute, globalVersion.get(), RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    public long version(Long id) {
+        return versions.getOrDefault(id, 0L);
+    }
+
+    public boolean isKnown(Long id) {
+        return id != null && versions.containsKey(id);
+    }
+
+    public long globalVersion() {
+        return globalVersion.get();
+    }
+
+    public void invalidate(Long id) {
+        versions.merge(id, 1L, Long::sum);
+        fragments.remove(id);
+        globalVersion.incrementAndGet();
+    }
+
+    public String entityTag(Long id) {
+        return "\"" + tagPrefix + "-" + id + "." + version(id) + "\"";
+    }
+
+    public String collectionTag(String discriminator) {
+        return "\"" + tagPrefix + "-" + discriminator + "." + globalVersion() + "\"";
+    }
+
+    String get(Long id) {
+        Fragment fragment = fragments.get(id);
+
+        if (fragment == null || fragment.version() != version(id)) {
+            return null;
+        }
+
+        return fragment.json();
+    }
+
+    boolean unchangedSinceRead() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return false;
+        }
+        Object stamp = attributes.getAttribute(readStampAttribute, RequestAttributes.SCOPE_REQUEST);
+        return stamp instanceof Long readVersion && readVersion == globalVersion.get();
+    }
+
+    void put(Long id, long version, String json) {
+        if (version(id) == version) {
+            fragments.put(id, new Fragment(version, json));
+        }
+    }
+
+    private record Fragment(long version, String json) {
+    }
+}
@@ -0,0 +1,109 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Объединение одинаковых запросов: пока результат по ключу вычисляется, остальные вызовы ждут его,
+ * а готовый результат ещё короткое время отдаётся без пересчёта. Ключ должен включать версию
+ * данных, чтобы после записи следующий запрос не получил устаревший результат. Если вычисление
+ * падает, в том числе с {@link Error}, ожидающие получают ту же ошибку, а результат не сохраняется.
+ */
+public class SingleFlight<V> {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<String, Call<V>> calls = new ConcurrentHashMap<>();
+    private final long reuseNanos;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder executions = new LongAdder();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    public SingleFlight(long reuseMs) {
+        this.reuseNanos = TimeUnit.MILLISECONDS.toNanos(reuseMs);
+    }
+
+    public V execute(String key, Supplier<V> loader) {
+        requests.increment();
+        sweepIfDue();
+
+        while (true) {
+            Call<V> call = calls.get(key);
+
+            if (call != null) {
+                if (!call.isExpired(System.nanoTime(), reuseNanos)) {
+                    return call.await();
+                }
+                calls.remove(key, call);
+                continue;
+            }
+
+            Call<V> mine = new Call<>();
+            if (calls.putIfAbsent(key, mine) != null) {
+                continue;
+            }
+
+            executions.increment();
+            try {
+                V value = loader.get();
+                mine.finish(value);
+                return value;
+            } catch (Throwable e) {
+                calls.remove(key, mine);
+                mine.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    public Stats stats() {
+        long requested = requests.sum();
+        long executed = executions.sum();
+        return new Stats(requested, executed, requested == 0 ? 0 : 1 - (double) executed / requested);
+    }
+
+    private void sweepIfDue() {
+        long now = System.nanoTime();
+        long last = lastSweep.get();
+
+        if (now - last > SWEEP_INTERVAL_NANOS && lastSweep.compareAndSet(last, now)) {
+            calls.values().removeIf(call -> call.isExpired(now, reuseNanos));
+        }
+    }
+
+    public record Stats(long requests, long executions, double coalescingRatio) {
+    }
+
+    private static final class Call<V> extends CompletableFuture<V> {
+        private volatile long completedAt;
+
+        void finish(V value) {
+            completedAt = System.nanoTime();
+            complete(value);
+        }
+
+        boolean isExpired(long now, long reuseNanos) {
+            return isDone() && now - completedAt > reuseNanos;
+        }
+
+        V await() {
+            try {
+                return join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
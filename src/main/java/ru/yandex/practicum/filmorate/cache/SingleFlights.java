@@ -0,0 +1,42 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Объединители запросов популярных фильмов и списков друзей. Оба ключа включают глобальную версию
+ * кэша своего типа: популярность зависит от лайков всех фильмов, а список друзей отдаёт профили
+ * друзей, которые меняются отдельно от самого пользователя. Поэтому любая запись фильма или
+ * пользователя сбрасывает объединение для всех ключей этого типа: под постоянной записью
+ * объединяются только запросы между соседними записями, а выигрыш остаётся для всплесков чтения.
+ * Ключ по версии одной сущности держал бы объединение дольше, но отдавал бы устаревшие профили
+ * друзей и устаревший топ.
+ */
+@Component
+public class SingleFlights {
+
+    private final SingleFlight<Collection<Film>> popularFilms;
+    private final SingleFlight<Collection<User>> friends;
+
+    public SingleFlights(@Value("${filmorate.single-flight.reuse-ms:100}") long reuseMs) {
+        this.popularFilms = new SingleFlight<>(reuseMs);
+        this.friends = new SingleFlight<>(reuseMs);
+    }
+
+    public SingleFlight<Collection<Film>> popularFilms() {
+        return popularFilms;
+    }
+
+    public SingleFlight<Collection<User>> friends() {
+        return friends;
+    }
+
+    public Map<String, SingleFlight.Stats> stats() {
+        return Map.of("popularFilms", popularFilms.stats(), "friends", friends.stats());
+    }
+}
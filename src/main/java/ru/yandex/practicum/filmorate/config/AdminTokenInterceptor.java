@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.yandex.practicum.filmorate.exception.ForbiddenException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Допуск к {@code /admin/**} по ключу {@code filmorate.admin.token} в заголовке {@link #TOKEN_HEADER}.
+ * Пока ключ не задан, административные эндпоинты отвечают 403.
+ */
+@Component
+public class AdminTokenInterceptor implements HandlerInterceptor {
+
+    public static final String TOKEN_HEADER = "X-Admin-Token";
+
+    private final byte[] token;
+
+    public AdminTokenInterceptor(@Value("${filmorate.admin.token:}") String token) {
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (token.length == 0) {
+            throw new ForbiddenException("Административные эндпоинты выключены: не задан filmorate.admin.token");
+        }
+
+        String provided = request.getHeader(TOKEN_HEADER);
+        if (provided == null || !MessageDigest.isEqual(token, provided.getBytes(StandardCharsets.UTF_8))) {
+            throw new ForbiddenException("Неверный ключ администратора");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import ru.yandex.practicum.filmorate.dto.FilmSummary;
+import ru.yandex.practicum.filmorate.dto.PopularityUpdate;
+import ru.yandex.practicum.filmorate.dto.RankChange;
+import ru.yandex.practicum.filmorate.dto.UserSummary;
+import ru.yandex.practicum.filmorate.exception.ErrorResponse;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.replication.ReplicationOp;
+
+/**
+ * Подсказки для Spring AOT и GraalVM native image. Эти типы Jackson читает и пишет не только через
+ * сигнатуры контроллеров, но и напрямую (кэш JSON-фрагментов, ErrorHandler, репликация, SSE),
+ * поэтому рефлексию для их сериализации регистрируем явно.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.JacksonBindingHints.class)
+public class NativeHintsConfig {
+
+    static final Class<?>[] BINDING_TYPES = {
+            Film.class, User.class, ErrorResponse.class, FilmSummary.class, UserSummary.class,
+            PopularityUpdate.class, RankChange.class, ReplicationOp.class
+    };
+
+    static class JacksonBindingHints implements RuntimeHintsRegistrar {
+
+        private final BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            bindings.registerReflectionHints(hints.reflection(), BINDING_TYPES);
+        }
+    }
+}
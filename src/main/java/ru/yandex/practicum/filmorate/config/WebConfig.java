@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.yandex.practicum.filmorate.ratelimit.RateLimitInterceptor;
+
+/**
+ * Ограничение частоты и контроль допуска для пользовательских эндпоинтов; SSE-поток и
+ * внутренняя репликация исключены, чтобы длинные соединения не искажали замеры задержек.
+ * Административные эндпоинты доступны только по ключу.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final RateLimitInterceptor rateLimitInterceptor;
+    private final AdminTokenInterceptor adminTokenInterceptor;
+
+    public WebConfig(RateLimitInterceptor rateLimitInterceptor, AdminTokenInterceptor adminTokenInterceptor) {
+        this.rateLimitInterceptor = rateLimitInterceptor;
+        this.adminTokenInterceptor = adminTokenInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(rateLimitInterceptor)
+                .addPathPatterns("/films/**", "/users/**", "/reactive/**")
+                .excludePathPatterns("/films/popular/stream");
+        registry.addInterceptor(adminTokenInterceptor)
+                .addPathPatterns("/admin/**");
+    }
+}
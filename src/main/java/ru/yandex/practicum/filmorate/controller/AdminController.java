@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.cache.SingleFlight;
+import ru.yandex.practicum.filmorate.cache.SingleFlights;
+import ru.yandex.practicum.filmorate.profiling.FlightRecorderService;
+import ru.yandex.practicum.filmorate.profiling.RecordingStatus;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+    private final SingleFlights singleFlights;
+    private final FlightRecorderService flightRecorder;
+
+    public AdminController(SingleFlights singleFlights, FlightRecorderService flightRecorder) {
+        this.singleFlights = singleFlights;
+        this.flightRecorder = flightRecorder;
+    }
+
+    @GetMapping("/single-flight")
+    public Map<String, SingleFlight.Stats> getSingleFlightStats() {
+        return singleFlights.stats();
+    }
+
+    @GetMapping("/profiling")
+    public RecordingStatus getRecordingStatus() {
+        return flightRecorder.status();
+    }
+
+    @PostMapping("/profiling/start")
+    public RecordingStatus startRecording() {
+        return flightRecorder.start();
+    }
+
+    @PostMapping("/profiling/stop")
+    public RecordingStatus stopRecording() {
+        return flightRecorder.stop();
+    }
+
+    @PostMapping("/profiling/dump")
+    public ResponseEntity<Resource> dumpRecording() {
+        String filename = "filmorate-" + System.currentTimeMillis() + ".jfr";
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build()
+                        .toString())
+                .body(new InputStreamResource(flightRecorder.openDump()));
+    }
+}
@@ -1,21 +1,37 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import reactor.core.publisher.Flux;
+import ru.yandex.practicum.filmorate.dto.FilmSummary;
+import ru.yandex.practicum.filmorate.dto.PopularityUpdate;
+import ru.yandex.practicum.filmorate.dto.ResponseView;
 import ru.yandex.practicum.filmorate.model.Film;
 
+import ru.yandex.practicum.filmorate.service.AggregateService;
 import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.PopularityFeed;
 
+import java.time.Duration;
 import java.util.Collection;
+import java.util.List;
 
 
 @RestController
 @RequestMapping("/films")
 public class FilmController {
     private final FilmService filmService;
+    private final PopularityFeed popularityFeed;
+    private final AggregateService aggregateService;
 
-    public FilmController(FilmService filmService) {
+    public FilmController(FilmService filmService, PopularityFeed popularityFeed, AggregateService aggregateService) {
         this.filmService = filmService;
+        this.popularityFeed = popularityFeed;
+        this.aggregateService = aggregateService;
     }
 
 
@@ -39,7 +55,10 @@ public class FilmController {
     }
 
     @GetMapping("/{id}")
-    public Film getFilmById(@PathVariable Long id) {
+    public Film getFilmById(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(filmService.getFilmTag(id))) {
+            return null;
+        }
         return filmService.findById(id);
     }
 
@@ -56,7 +75,42 @@ public class FilmController {
     }
 
     @GetMapping("/popular")
-    public Collection<Film> getPopular(@RequestParam(defaultValue = "10") int count) {
-        return filmService.getPopular(count);
+    public Collection<?> getPopular(@RequestParam(defaultValue = "10") int count,
+                                    @RequestParam(defaultValue = "summary") String view,
+                                    WebRequest request) {
+        ResponseView responseView = ResponseView.of(view);
+
+        if (request.checkNotModified(filmService.getFilmsTag("popular-" + count + "-" + responseView))) {
+            return null;
+        }
+
+        Collection<Film> popular = filmService.getPopular(count);
+
+        if (responseView == ResponseView.FULL) {
+            return popular;
+        }
+        return popular.stream().map(FilmSummary::from).toList();
+    }
+
+    @GetMapping("/popular/snapshot")
+    public ResponseEntity<List<FilmSummary>> getPopularSnapshot(@RequestParam(defaultValue = "10") int count) {
+        return SnapshotResponses.ok(aggregateService, snapshot -> aggregateService.getPopular(snapshot, count));
+    }
+
+    /**
+     * Поток SSE без тайм-аута: для потоковых типов Spring MVC создаёт {@code SseEmitter} с тайм-аутом -1,
+     * поэтому общий {@code spring.mvc.async.request-timeout} остальных асинхронных запросов его не обрывает.
+     */
+    @GetMapping(value = "/popular/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<PopularityUpdate>> streamPopular() {
+        Flux<ServerSentEvent<PopularityUpdate>> updates = popularityFeed.updates()
+                .map(update -> ServerSentEvent.builder(update)
+                        .id(String.valueOf(update.sequence()))
+                        .event("popular")
+                        .build());
+        Flux<ServerSentEvent<PopularityUpdate>> heartbeats = Flux.interval(Duration.ofSeconds(15))
+                .map(tick -> ServerSentEvent.<PopularityUpdate>builder().comment("ping").build());
+
+        return Flux.merge(updates, heartbeats);
     }
 }
@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.yandex.practicum.filmorate.dto.FilmSummary;
+import ru.yandex.practicum.filmorate.dto.ResponseView;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.util.List;
+
+/**
+ * Те же операции, что и в {@link FilmController}, но с асинхронной отдачей ответа:
+ * поток запросов освобождается, а списки отдаются построчно (NDJSON) по мере готовности клиента.
+ * Сервисы блокируют поток на блокировках хранилищ, поэтому вызываются на {@code boundedElastic}.
+ */
+@RestController
+@RequestMapping("/reactive/films")
+public class ReactiveFilmController {
+    private final FilmService filmService;
+
+    public ReactiveFilmController(FilmService filmService) {
+        this.filmService = filmService;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Film> findAll() {
+        return Flux.defer(() -> Flux.fromIterable(List.copyOf(filmService.findAll())))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Film> create(@RequestBody Film film) {
+        return Mono.fromCallable(() -> filmService.create(film))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PutMapping
+    public Mono<Film> update(@RequestBody Film film) {
+        return Mono.fromCallable(() -> filmService.update(film))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Film> getFilmById(@PathVariable Long id) {
+        return Mono.fromCallable(() -> filmService.findById(id))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PutMapping("/{id}/like/{userId}")
+    public Mono<Void> addLike(@PathVariable Long id, @PathVariable Long userId) {
+        return Mono.<Void>fromRunnable(() -> filmService.addLike(id, userId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @DeleteMapping("/{id}/like/{userId}")
+    public Mono<Void> removeLike(@PathVariable Long id, @PathVariable Long userId) {
+        return Mono.<Void>fromRunnable(() -> filmService.removeLike(id, userId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping(value = "/popular", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<?> getPopular(@RequestParam(defaultValue = "10") int count,
+                              @RequestParam(defaultValue = "summary") String view) {
+        ResponseView responseView = ResponseView.of(view);
+        Flux<Film> popular = Flux.defer(() -> Flux.fromIterable(filmService.getPopular(count)))
+                .subscribeOn(Schedulers.boundedElastic());
+
+        if (responseView == ResponseView.FULL) {
+            return popular;
+        }
+        return popular.map(FilmSummary::from);
+    }
+}
@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.yandex.practicum.filmorate.dto.ResponseView;
+import ru.yandex.practicum.filmorate.dto.UserSummary;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/reactive/users")
+public class ReactiveUserController {
+    private final UserService userService;
+
+    public ReactiveUserController(UserService userService) {
+        this.userService = userService;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<User> findAll() {
+        return Flux.defer(() -> Flux.fromIterable(List.copyOf(userService.findAll())))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<User> create(@RequestBody User user) {
+        return Mono.fromCallable(() -> userService.create(user))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PutMapping
+    public Mono<User> update(@RequestBody User user) {
+        return Mono.fromCallable(() -> userService.update(user))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/{id}")
+    public Mono<User> getUserById(@PathVariable Long id) {
+        return Mono.fromCallable(() -> userService.findById(id))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PutMapping("/{id}/friends/{friendId}")
+    public Mono<Void> addFriend(@PathVariable Long id, @PathVariable Long friendId) {
+        return Mono.<Void>fromRunnable(() -> userService.addFriend(id, friendId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @DeleteMapping("/{id}/friends/{friendId}")
+    public Mono<Void> removeFriend(@PathVariable Long id, @PathVariable Long friendId) {
+        return Mono.<Void>fromRunnable(() -> userService.removeFriend(id, friendId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping(value = "/{id}/friends/common/{otherId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<User> getCommonFriends(@PathVariable Long id, @PathVariable Long otherId) {
+        return Flux.defer(() -> Flux.fromIterable(userService.getCommonFriends(id, otherId)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping(value = "/{id}/friends", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<?> getFriends(@PathVariable Long id, @RequestParam(defaultValue = "summary") String view) {
+        ResponseView responseView = ResponseView.of(view);
+        Flux<User> friends = Flux.defer(() -> Flux.fromIterable(userService.getFriends(id)))
+                .subscribeOn(Schedulers.boundedElastic());
+
+        if (responseView == ResponseView.FULL) {
+            return friends;
+        }
+        return friends.map(UserSummary::from);
+    }
+}
@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.filmorate.exception.ForbiddenException;
+import ru.yandex.practicum.filmorate.replication.ReplicationOp;
+import ru.yandex.practicum.filmorate.replication.ReplicationTransport;
+import ru.yandex.practicum.filmorate.replication.Replicator;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Приём журнала и отдача снимка для других узлов. Запросы без общего ключа
+ * {@code filmorate.replication.secret} в заголовке отклоняются с 403.
+ */
+@RestController
+@RequestMapping("/internal/replication")
+@ConditionalOnProperty(name = "filmorate.replication.enabled", havingValue = "true")
+public class ReplicationController {
+    private final Replicator replicator;
+    private final byte[] secret;
+
+    public ReplicationController(Replicator replicator, @Value("${filmorate.replication.secret:}") String secret) {
+        if (secret.isBlank()) {
+            throw new IllegalStateException("Для репликации нужно задать filmorate.replication.secret");
+        }
+        this.replicator = replicator;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void apply(@RequestHeader(name = ReplicationTransport.SECRET_HEADER, required = false) String provided,
+                      @RequestBody List<ReplicationOp> ops) {
+        checkSecret(provided);
+        replicator.apply(ops);
+    }
+
+    @GetMapping("/snapshot")
+    public List<ReplicationOp> snapshot(
+            @RequestHeader(name = ReplicationTransport.SECRET_HEADER, required = false) String provided) {
+        checkSecret(provided);
+        return replicator.snapshot();
+    }
+
+    private void checkSecret(String provided) {
+        if (provided == null || !MessageDigest.isEqual(secret, provided.getBytes(StandardCharsets.UTF_8))) {
+            throw new ForbiddenException("Неверный ключ репликации");
+        }
+    }
+}
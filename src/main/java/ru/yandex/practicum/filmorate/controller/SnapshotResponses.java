@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.ResponseEntity;
+import ru.yandex.practicum.filmorate.dto.AggregateSnapshot;
+import ru.yandex.practicum.filmorate.service.AggregateService;
+
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Ответы из снимка агрегатов: возраст снимка отдаётся в заголовке, время расчёта — в Last-Modified.
+ */
+final class SnapshotResponses {
+
+    static final String AGE_HEADER = "X-Snapshot-Age-Ms";
+
+    private SnapshotResponses() {
+    }
+
+    static <T> ResponseEntity<T> ok(AggregateService aggregateService, Function<AggregateSnapshot, T> body) {
+        AggregateSnapshot snapshot = aggregateService.current();
+        return ok(aggregateService, snapshot.computedAt(), body.apply(snapshot));
+    }
+
+    static <T> ResponseEntity<T> ok(AggregateService aggregateService, Instant computedAt, T body) {
+        return ResponseEntity.ok()
+                .header(AGE_HEADER, String.valueOf(aggregateService.ageMillis(computedAt)))
+                .lastModified(computedAt)
+                .body(body);
+    }
+}
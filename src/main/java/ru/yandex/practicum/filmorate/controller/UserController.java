@@ -2,19 +2,34 @@ package ru.yandex.practicum.filmorate.controller;
 
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.dto.AggregateSnapshot;
+import ru.yandex.practicum.filmorate.dto.ResponseView;
+import ru.yandex.practicum.filmorate.dto.SuggestionList;
+import ru.yandex.practicum.filmorate.dto.UserSummary;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.AggregateService;
+import ru.yandex.practicum.filmorate.service.FriendPathService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.SortedMap;
 
 @RestController
 @RequestMapping("/users")
 public class UserController {
     private final UserService userService;
+    private final AggregateService aggregateService;
+    private final FriendPathService friendPathService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, AggregateService aggregateService,
+                          FriendPathService friendPathService) {
         this.userService = userService;
+        this.aggregateService = aggregateService;
+        this.friendPathService = friendPathService;
     }
 
 
@@ -37,8 +52,26 @@ public class UserController {
         return userService.update(user);
     }
 
+    @GetMapping("/by-email")
+    public User getUserByEmail(@RequestParam String email) {
+        return userService.findByEmail(email);
+    }
+
+    @GetMapping("/by-login")
+    public User getUserByLogin(@RequestParam String login) {
+        return userService.findByLogin(login);
+    }
+
+    @GetMapping("/friend-counts")
+    public ResponseEntity<SortedMap<Integer, Long>> getFriendCounts() {
+        return SnapshotResponses.ok(aggregateService, AggregateSnapshot::friendCounts);
+    }
+
     @GetMapping("/{id}")
-    public User getUserById(@PathVariable Long id) {
+    public User getUserById(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(userService.getUserTag(id))) {
+            return null;
+        }
         return userService.findById(id);
     }
 
@@ -61,11 +94,33 @@ public class UserController {
         return userService.getCommonFriends(id, otherId);
     }
 
+    @GetMapping("/{id}/path/{otherId}")
+    public List<UserSummary> getPath(@PathVariable Long id, @PathVariable Long otherId) {
+        return friendPathService.getPath(id, otherId).stream().map(UserSummary::from).toList();
+    }
+
+    @GetMapping("/{id}/suggestions")
+    public ResponseEntity<List<UserSummary>> getSuggestions(@PathVariable Long id) {
+        SuggestionList suggestions = aggregateService.getSuggestions(id);
+        return SnapshotResponses.ok(aggregateService, suggestions.computedAt(), suggestions.users());
+    }
+
     @GetMapping("/{id}/friends")
-    @ResponseStatus(HttpStatus.OK)
-    public Collection<User> getFriends(@PathVariable Long id) {
+    public Collection<?> getFriends(@PathVariable Long id,
+                                    @RequestParam(defaultValue = "summary") String view,
+                                    WebRequest request) {
+        ResponseView responseView = ResponseView.of(view);
+
+        if (request.checkNotModified(userService.getUsersTag("friends-" + id + "-" + responseView))) {
+            return null;
+        }
+
+        Collection<User> friends = userService.getFriends(id);
 
-        return userService.getFriends(id);
+        if (responseView == ResponseView.FULL) {
+            return friends;
+        }
+        return friends.stream().map(UserSummary::from).toList();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+
+public record AggregateSnapshot(Instant computedAt,
+                                List<FilmSummary> popular,
+                                SortedMap<Integer, Long> friendCounts) {
+
+    public static final AggregateSnapshot EMPTY = new AggregateSnapshot(Instant.EPOCH, List.of(),
+            Collections.emptySortedMap());
+}
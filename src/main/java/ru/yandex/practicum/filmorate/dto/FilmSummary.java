@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+
+public record FilmSummary(Long id, String name, String description, LocalDate releaseDate, int duration,
+                          int likesCount) {
+
+    public static FilmSummary from(Film film) {
+        return new FilmSummary(film.getId(), film.getName(), film.getDescription(), film.getReleaseDate(),
+                film.getDuration(), film.getLikesCount());
+    }
+}
@@ -0,0 +1,6 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import java.util.List;
+
+public record PopularityUpdate(long sequence, List<FilmSummary> ranking, List<RankChange> changes) {
+}
@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.dto;
+
+/**
+ * Изменение позиции фильма в топе; position равен null, если фильм выбыл из топа.
+ */
+public record RankChange(Long filmId, Integer position, int likesCount) {
+}
@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+public enum ResponseView {
+    SUMMARY,
+    FULL;
+
+    public static ResponseView of(String value) {
+        for (ResponseView view : values()) {
+            if (view.name().equalsIgnoreCase(value)) {
+                return view;
+            }
+        }
+        throw new ValidationException("Параметр view должен быть summary или full");
+    }
+}
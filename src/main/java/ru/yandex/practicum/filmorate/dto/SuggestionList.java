@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record SuggestionList(Instant computedAt, List<UserSummary> users) {
+}
@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+
+public record UserSummary(Long id, String email, String login, String name, LocalDate birthday,
+                          int friendsCount) {
+
+    public static UserSummary from(User user) {
+        return new UserSummary(user.getId(), user.getEmail(), user.getLogin(), user.getName(), user.getBirthday(),
+                user.getFriendsCount());
+    }
+}
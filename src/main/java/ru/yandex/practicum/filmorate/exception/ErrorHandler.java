@@ -7,17 +7,47 @@ import org.springframework.web.bind.annotation.*;
 @Slf4j
 @RestControllerAdvice
 public class ErrorHandler {
+
+    private static final int WARNINGS_PER_SECOND = 10;
+    private static final ErrorResponse INTERNAL_ERROR = new ErrorResponse("Произошла непредвиденная ошибка.");
+
+    private final LogThrottle notFoundLog = new LogThrottle(WARNINGS_PER_SECOND);
+    private final LogThrottle validationLog = new LogThrottle(WARNINGS_PER_SECOND);
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleNotFound(final NotFoundException e) {
-        log.warn("Ошибка 404: {}", e.getMessage());
-        return new ErrorResponse(e.getMessage());
+        String message = e.getMessage();
+        notFoundLog.warn(log, "Ошибка 404: {}", message);
+        return new ErrorResponse(message);
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidation(final ValidationException e) {
-        log.warn("Ошибка 400: {}", e.getMessage());
+        String message = e.getMessage();
+        validationLog.warn(log, "Ошибка 400: {}", message);
+        return new ErrorResponse(message);
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.FORBIDDEN)
+    public ErrorResponse handleForbidden(final ForbiddenException e) {
+        log.warn("Ошибка 403: {}", e.getMessage());
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleConflict(final ConflictException e) {
+        log.warn("Ошибка 409: {}", e.getMessage());
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ErrorResponse handleTooManyRequests(final TooManyRequestsException e) {
+        log.debug("Ошибка 429: {}", e.getMessage());
         return new ErrorResponse(e.getMessage());
     }
 
@@ -25,6 +55,6 @@ public class ErrorHandler {
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleOther(final Throwable e) {
         log.error("Ошибка 500", e);
-        return new ErrorResponse("Произошла непредвиденная ошибка.");
+        return INTERNAL_ERROR;
     }
-}
\ No newline at end of file
+}
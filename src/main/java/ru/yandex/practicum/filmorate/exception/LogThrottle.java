@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.exception;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Не больше заданного числа предупреждений в секунду; о пропущенных сообщается одной строкой
+ * в начале следующего окна.
+ */
+final class LogThrottle {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int perSecond;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger logged = new AtomicInteger();
+    private final AtomicInteger suppressed = new AtomicInteger();
+
+    LogThrottle(int perSecond) {
+        this.perSecond = perSecond;
+    }
+
+    void warn(Logger log, String format, String message) {
+        if (!log.isWarnEnabled()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start > WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            logged.set(0);
+            int skipped = suppressed.getAndSet(0);
+            if (skipped > 0) {
+                log.warn("Пропущено {} похожих предупреждений за последнюю секунду", skipped);
+            }
+        }
+
+        if (logged.incrementAndGet() <= perSecond) {
+            log.warn(format, message);
+        } else {
+            suppressed.incrementAndGet();
+        }
+    }
+}
@@ -1,8 +1,19 @@
 package ru.yandex.practicum.filmorate.exception;
 
-
+/**
+ * Исключение без стека: поток 404 от перебора несуществующих id не платит за заполнение стека.
+ */
 public class NotFoundException extends RuntimeException {
+
     public NotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
+    }
+
+    public static NotFoundException film(Long id) {
+        return new NotFoundException("Фильм с id=" + id + " не найден");
+    }
+
+    public static NotFoundException user(Long id) {
+        return new NotFoundException("Пользователь с id=" + id + " не найден");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,70 @@
+package ru.yandex.practicum.filmorate.graph;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Неизменяемый снимок графа дружбы в формате CSR: id пользователей отсортированы,
+ * вершина — позиция id в массиве, соседи вершины i лежат в neighbors[offsets[i]..offsets[i + 1]).
+ */
+public final class FriendGraph {
+
+    final long[] ids;
+    final int[] offsets;
+    final int[] neighbors;
+
+    private FriendGraph(long[] ids, int[] offsets, int[] neighbors) {
+        this.ids = ids;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+    }
+
+    public static FriendGraph build(long[] userIds, Function<Long, Set<Long>> friendsOf) {
+        long[] ids = userIds.clone();
+        Arrays.sort(ids);
+
+        int[][] rows = new int[ids.length][];
+        IntStream.range(0, ids.length).parallel().forEach(i -> {
+            Set<Long> friends = friendsOf.apply(ids[i]);
+            int[] row = new int[friends.size()];
+            int count = 0;
+            for (Long friendId : friends) {
+                int index = Arrays.binarySearch(ids, friendId);
+                if (index >= 0 && count < row.length) {
+                    row[count++] = index;
+                }
+            }
+            rows[i] = count == row.length ? row : Arrays.copyOf(row, count);
+        });
+
+        int[] offsets = new int[ids.length + 1];
+        for (int i = 0; i < ids.length; i++) {
+            offsets[i + 1] = offsets[i] + rows[i].length;
+        }
+        int[] neighbors = new int[offsets[ids.length]];
+        for (int i = 0; i < ids.length; i++) {
+            System.arraycopy(rows[i], 0, neighbors, offsets[i], rows[i].length);
+        }
+
+        return new FriendGraph(ids, offsets, neighbors);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int indexOf(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? index : -1;
+    }
+
+    public long idAt(int index) {
+        return ids[index];
+    }
+
+    int degree(int index) {
+        return offsets[index + 1] - offsets[index];
+    }
+}
@@ -0,0 +1,207 @@
+package ru.yandex.practicum.filmorate.graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * Двунаправленный поиск в ширину по {@link FriendGraph}. На каждом шаге расширяется сторона
+ * с меньшей суммой степеней фронта; широкие уровни обходятся параллельно кусками, а отметки
+ * посещения и родители записываются одним потоком. Поиск прерывается по глубине, числу
+ * посещённых вершин и сроку.
+ */
+public final class ShortestPath {
+
+    private static final int CHUNK = 1024;
+
+    private final FriendGraph graph;
+    private final int maxDepth;
+    private final int maxVisited;
+    private final int parallelThreshold;
+
+    public ShortestPath(FriendGraph graph, int maxDepth, int maxVisited, int parallelThreshold) {
+        this.graph = graph;
+        this.maxDepth = maxDepth;
+        this.maxVisited = maxVisited;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public Result find(int from, int to, long deadlineNanos) {
+        if (from == to) {
+            return Result.found(new long[]{graph.idAt(from)});
+        }
+
+        Side forward = new Side(graph.size(), from);
+        Side backward = new Side(graph.size(), to);
+
+        while (forward.hasFrontier() && backward.hasFrontier()) {
+            if (forward.depth + backward.depth >= maxDepth
+                    || forward.size + backward.size > maxVisited
+                    || System.nanoTime() > deadlineNanos) {
+                return Result.LIMIT_REACHED;
+            }
+
+            boolean forwardFirst = forward.frontierDegree(graph) <= backward.frontierDegree(graph);
+            Side side = forwardFirst ? forward : backward;
+            Side other = forwardFirst ? backward : forward;
+
+            int meeting = expand(side, other);
+            if (meeting >= 0) {
+                return Result.found(forwardFirst
+                        ? join(forward, meeting, backward, backward.positionOf(side.order[meeting]))
+                        : join(forward, forward.positionOf(side.order[meeting]), backward, meeting));
+            }
+        }
+
+        return Result.NOT_CONNECTED;
+    }
+
+    private int expand(Side side, Side other) {
+        int start = side.frontierStart;
+        int end = side.size;
+
+        if (end - start >= parallelThreshold) {
+            int[][] candidates = IntStream.range(0, (end - start + CHUNK - 1) / CHUNK)
+                    .parallel()
+                    .mapToObj(chunk -> collect(side, start + chunk * CHUNK, Math.min(end, start + (chunk + 1) * CHUNK)))
+                    .toArray(int[][]::new);
+
+            for (int[] pairs : candidates) {
+                for (int i = 0; i < pairs.length; i += 2) {
+                    int meeting = visit(side, other, pairs[i], pairs[i + 1]);
+                    if (meeting >= 0) {
+                        return meeting;
+                    }
+                }
+            }
+        } else {
+            for (int position = start; position < end; position++) {
+                int node = side.order[position];
+                for (int k = graph.offsets[node]; k < graph.offsets[node + 1]; k++) {
+                    int meeting = visit(side, other, graph.neighbors[k], position);
+                    if (meeting >= 0) {
+                        return meeting;
+                    }
+                }
+            }
+        }
+
+        side.frontierStart = end;
+        side.depth++;
+        return -1;
+    }
+
+    private int[] collect(Side side, int from, int to) {
+        int[] pairs = new int[16];
+        int count = 0;
+
+        for (int position = from; position < to; position++) {
+            int node = side.order[position];
+            for (int k = graph.offsets[node]; k < graph.offsets[node + 1]; k++) {
+                int neighbor = graph.neighbors[k];
+                if (!side.visited.get(neighbor)) {
+                    if (count + 2 > pairs.length) {
+                        pairs = Arrays.copyOf(pairs, pairs.length * 2);
+                    }
+                    pairs[count++] = neighbor;
+                    pairs[count++] = position;
+                }
+            }
+        }
+        return Arrays.copyOf(pairs, count);
+    }
+
+    private static int visit(Side side, Side other, int node, int parentPosition) {
+        if (side.visited.get(node)) {
+            return -1;
+        }
+        side.add(node, parentPosition);
+        return other.visited.get(node) ? side.size - 1 : -1;
+    }
+
+    private long[] join(Side forward, int forwardPosition, Side backward, int backwardPosition) {
+        int forwardLength = forward.chainLength(forwardPosition);
+        int backwardLength = backward.chainLength(backwardPosition);
+        long[] path = new long[forwardLength + backwardLength - 1];
+
+        int position = forwardPosition;
+        for (int i = forwardLength - 1; i >= 0; i--) {
+            path[i] = graph.idAt(forward.order[position]);
+            position = forward.parents[position];
+        }
+        position = backward.parents[backwardPosition];
+        for (int i = forwardLength; i < path.length; i++) {
+            path[i] = graph.idAt(backward.order[position]);
+            position = backward.parents[position];
+        }
+        return path;
+    }
+
+    public record Result(long[] path, boolean limitReached) {
+
+        static final Result NOT_CONNECTED = new Result(null, false);
+        static final Result LIMIT_REACHED = new Result(null, true);
+
+        static Result found(long[] path) {
+            return new Result(path, false);
+        }
+
+        public boolean isFound() {
+            return path != null;
+        }
+    }
+
+    private static final class Side {
+        private final BitSet visited;
+        private int[] order = new int[16];
+        private int[] parents = new int[16];
+        private int size;
+        private int frontierStart;
+        private int depth;
+
+        Side(int nodes, int root) {
+            this.visited = new BitSet(nodes);
+            add(root, -1);
+        }
+
+        boolean hasFrontier() {
+            return frontierStart < size;
+        }
+
+        long frontierDegree(FriendGraph graph) {
+            long degree = 0;
+            for (int position = frontierStart; position < size; position++) {
+                degree += graph.degree(order[position]);
+            }
+            return degree;
+        }
+
+        void add(int node, int parentPosition) {
+            if (size == order.length) {
+                order = Arrays.copyOf(order, size * 2);
+                parents = Arrays.copyOf(parents, size * 2);
+            }
+            order[size] = node;
+            parents[size] = parentPosition;
+            size++;
+            visited.set(node);
+        }
+
+        int positionOf(int node) {
+            for (int position = size - 1; position >= 0; position--) {
+                if (order[position] == node) {
+                    return position;
+                }
+            }
+            return -1;
+        }
+
+        int chainLength(int position) {
+            int length = 0;
+            for (int current = position; current >= 0; current = parents[current]) {
+                length++;
+            }
+            return length;
+        }
+    }
+}
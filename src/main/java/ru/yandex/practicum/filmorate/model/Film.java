@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
 
@@ -19,4 +20,10 @@ public class Film {
     private LocalDate releaseDate;
     private int duration;
     private Set<Long> likes = new HashSet<>();
+    private Long version;
+
+    @JsonIgnore
+    public int getLikesCount() {
+        return likes == null ? 0 : likes.size();
+    }
 }
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
 import java.time.LocalDate;
@@ -14,5 +15,10 @@ public class User {
     private String name;
     private LocalDate birthday;
     private Set<Long> friends = new HashSet<>();
+    private Long version;
 
+    @JsonIgnore
+    public int getFriendsCount() {
+        return friends == null ? 0 : friends.size();
+    }
 }
@@ -0,0 +1,156 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Запись JFR по запросу без перезапуска приложения. Запись ограничена по возрасту, размеру и
+ * длительности: после {@code max-duration} или {@link #stop()} она останавливается, но её ещё можно
+ * выгрузить до следующего {@link #start()}. Одновременно идёт не больше одной записи.
+ * <p>
+ * События с переменными окружения, системными свойствами и свойствами безопасности процесса
+ * выключены при любых настройках: в них бывают пароли и ключи.
+ */
+@Slf4j
+@Component
+public class FlightRecorderService {
+
+    private static final String RECORDING_NAME = "filmorate";
+    private static final Duration PARK_THRESHOLD = Duration.ofMillis(1);
+    private static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty", "jdk.InitialSecurityProperty");
+
+    private final String settings;
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private final Duration maxDuration;
+    private final Path directory;
+    private Recording recording;
+
+    public FlightRecorderService(@Value("${filmorate.profiling.settings:default}") String settings,
+                                 @Value("${filmorate.profiling.max-age-seconds:300}") long maxAgeSeconds,
+                                 @Value("${filmorate.profiling.max-size-mb:64}") long maxSizeMb,
+                                 @Value("${filmorate.profiling.max-duration-seconds:600}") long maxDurationSeconds,
+                                 @Value("${filmorate.profiling.directory:${java.io.tmpdir}}") String directory) {
+        this.settings = settings;
+        this.maxAge = Duration.ofSeconds(maxAgeSeconds);
+        this.maxSizeBytes = maxSizeMb << 20;
+        this.maxDuration = Duration.ofSeconds(maxDurationSeconds);
+        this.directory = Path.of(directory);
+    }
+
+    public synchronized RecordingStatus start() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new ConflictException("Запись JFR уже идёт");
+        }
+        closeRecording();
+
+        try {
+            recording = new Recording(Configuration.getConfiguration(settings));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Не удалось загрузить настройки JFR " + settings, e);
+        }
+        recording.setName(RECORDING_NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeBytes);
+        recording.setDuration(maxDuration);
+        recording.enable(ServiceOperationEvent.class);
+        recording.enable(StorageOperationEvent.class);
+        recording.enable("jdk.ThreadPark").withThreshold(PARK_THRESHOLD).withStackTrace();
+        SENSITIVE_EVENTS.forEach(recording::disable);
+        recording.start();
+
+        log.info("Запись JFR запущена: настройки {}, не дольше {}, не больше {} МБ",
+                settings, maxDuration, maxSizeBytes >> 20);
+        return status();
+    }
+
+    /**
+     * Снимок накопленных данных, запись при этом продолжается. Снимок пишется во временный файл
+     * в {@code filmorate.profiling.directory}, который удаляется при закрытии потока.
+     */
+    public InputStream openDump() {
+        Path file = dumpToTempFile();
+        try {
+            return Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized RecordingStatus stop() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new ConflictException("Запись JFR не запущена");
+        }
+
+        recording.stop();
+        log.info("Запись JFR остановлена");
+        return status();
+    }
+
+    public synchronized RecordingStatus status() {
+        if (recording == null) {
+            return new RecordingStatus(RecordingState.CLOSED.name(), null, maxAge.toSeconds(), maxSizeBytes);
+        }
+        return new RecordingStatus(recording.getState().name(), recording.getStartTime(), maxAge.toSeconds(),
+                maxSizeBytes);
+    }
+
+    @PreDestroy
+    synchronized void shutdown() {
+        closeRecording();
+    }
+
+    private synchronized Path dumpToTempFile() {
+        if (recording == null) {
+            throw new ConflictException("Запись JFR не запущена");
+        }
+
+        Path file = null;
+        try {
+            Files.createDirectories(directory);
+            file = Files.createTempFile(directory, RECORDING_NAME + "-", ".jfr");
+            recording.dump(file);
+            return file;
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить временный файл JFR {}", file, e);
+        }
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import java.time.Instant;
+
+public record RecordingStatus(String state, Instant startedAt, long maxAgeSeconds, long maxSizeBytes) {
+}
@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR вокруг операции сервиса: длительность, id сущностей и размер результата.
+ * Пишется только для успешно завершённых операций. Пока запись не включена, {@link #finish}
+ * сводится к проверке {@code shouldCommit()}.
+ */
+@Name("filmorate.ServiceOperation")
+@Label("Операция сервиса")
+@Category({"Filmorate", "Сервисы"})
+@StackTrace(false)
+public final class ServiceOperationEvent extends Event {
+
+    @Label("Операция")
+    String operation;
+
+    @Label("Id")
+    long entityId;
+
+    @Label("Второй id")
+    @Description("Id пользователя для лайка, друга или второго пользователя; 0, если не нужен")
+    long otherId;
+
+    @Label("Размер результата")
+    int resultSize;
+
+    public static ServiceOperationEvent start() {
+        ServiceOperationEvent event = new ServiceOperationEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(String operation, long entityId, long otherId, int resultSize) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.entityId = entityId;
+            this.otherId = otherId;
+            this.resultSize = resultSize;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR вокруг обращения сервиса к хранилищу. Длительность включает ожидание блокировок
+ * хранилища, поэтому вместе с {@code jdk.ThreadPark} показывает, где хранилище упирается в конкуренцию.
+ */
+@Name("filmorate.StorageOperation")
+@Label("Операция хранилища")
+@Category({"Filmorate", "Хранилища"})
+@StackTrace(false)
+public final class StorageOperationEvent extends Event {
+
+    @Label("Хранилище")
+    String storage;
+
+    @Label("Операция")
+    String operation;
+
+    @Label("Id")
+    long entityId;
+
+    @Label("Размер множества")
+    int setSize;
+
+    public static StorageOperationEvent start() {
+        StorageOperationEvent event = new StorageOperationEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(Object storage, String operation, long entityId, int setSize) {
+        end();
+        if (shouldCommit()) {
+            this.storage = storage.getClass().getSimpleName();
+            this.operation = operation;
+            this.entityId = entityId;
+            this.setSize = setSize;
+            commit();
+        }
+    }
+}
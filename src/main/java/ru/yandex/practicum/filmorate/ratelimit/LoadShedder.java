@@ -0,0 +1,116 @@
+package ru.yandex.practicum.filmorate.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Контроль допуска записей по числу одновременных запросов, по умолчанию выключен
+ * ({@code filmorate.admission.enabled}). Задержки допущенных записей пишутся в кольцевой буфер;
+ * раз в секунду по накопленным замерам считается p99, и пока он выше порога, предел параллелизма
+ * записей уменьшается вдвое, иначе растёт на единицу до максимума.
+ */
+@Slf4j
+@Component
+public class LoadShedder {
+
+    private static final int SAMPLES = 1024;
+    private static final long ADJUST_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLongArray latencies = new AtomicLongArray(SAMPLES);
+    private final AtomicLong recorded = new AtomicLong();
+    private final boolean enabled;
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private final long thresholdNanos;
+    private final LongSupplier clock;
+    private final AtomicLong lastAdjustment;
+    private volatile int limit;
+
+    @Autowired
+    public LoadShedder(@Value("${filmorate.admission.enabled:false}") boolean enabled,
+                       @Value("${filmorate.admission.min-concurrency:4}") int minConcurrency,
+                       @Value("${filmorate.admission.max-concurrency:64}") int maxConcurrency,
+                       @Value("${filmorate.admission.p99-threshold-ms:200}") long thresholdMs) {
+        this(enabled, minConcurrency, maxConcurrency, thresholdMs, System::nanoTime);
+    }
+
+    LoadShedder(boolean enabled, int minConcurrency, int maxConcurrency, long thresholdMs, LongSupplier clock) {
+        this.enabled = enabled;
+        this.minConcurrency = minConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.clock = clock;
+        this.lastAdjustment = new AtomicLong(clock.getAsLong());
+        this.limit = maxConcurrency;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean tryAdmit() {
+        if (inFlight.incrementAndGet() > limit) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    public void recordLatency(long startNanos) {
+        long now = clock.getAsLong();
+        latencies.set((int) (recorded.getAndIncrement() & (SAMPLES - 1)), now - startNanos);
+
+        long last = lastAdjustment.get();
+        if (now - last > ADJUST_INTERVAL_NANOS && lastAdjustment.compareAndSet(last, now)) {
+            adjust();
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    void adjust() {
+        int count = (int) Math.min(recorded.getAndSet(0), SAMPLES);
+
+        if (count == 0) {
+            return;
+        }
+
+        long[] snapshot = new long[count];
+        for (int i = 0; i < count; i++) {
+            snapshot[i] = latencies.get(i);
+        }
+        Arrays.sort(snapshot);
+        long p99 = snapshot[(int) Math.ceil(count * 0.99) - 1];
+
+        int current = limit;
+        int next = p99 > thresholdNanos
+                ? Math.max(minConcurrency, current / 2)
+                : Math.min(maxConcurrency, current + 1);
+
+        if (next != current) {
+            limit = next;
+            log.info("Предел параллельных записей изменён с {} на {}, p99={} мс",
+                    current, next, TimeUnit.NANOSECONDS.toMillis(p99));
+        }
+    }
+}
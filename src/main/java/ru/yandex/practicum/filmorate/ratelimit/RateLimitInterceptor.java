@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.ratelimit;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.yandex.practicum.filmorate.exception.TooManyRequestsException;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.Map;
+
+/**
+ * Пропускает записи (всё, кроме GET и HEAD) через ограничение частоты по пользователю и по IP
+ * и через контроль параллелизма; чтения не проверяются и не замеряются. Бакет пользователя
+ * заводится только для существующего пользователя, иначе перебором id из пути можно было бы
+ * заполнить таблицу бакетов. IP клиента за балансировщиком берётся из X-Forwarded-For через
+ * {@code server.forward-headers-strategy=native}: Tomcat подставляет его в {@code getRemoteAddr()}
+ * только для доверенных прокси ({@code server.tomcat.remoteip.internal-proxies}).
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String ADMITTED_AT = RateLimitInterceptor.class.getName() + ".admittedAt";
+
+    private final RateLimiter rateLimiter;
+    private final LoadShedder loadShedder;
+    private final UserStorage userStorage;
+
+    public RateLimitInterceptor(RateLimiter rateLimiter, LoadShedder loadShedder, UserStorage userStorage) {
+        this.rateLimiter = rateLimiter;
+        this.loadShedder = loadShedder;
+        this.userStorage = userStorage;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST || !isWrite(request)) {
+            return true;
+        }
+
+        if (rateLimiter.isEnabled()) {
+            Long userId = actingUserId(request);
+            if (userId != null && !rateLimiter.tryAcquire("user:" + userId)) {
+                throw new TooManyRequestsException("Превышена частота запросов пользователя с id=" + userId);
+            }
+            if (!rateLimiter.tryAcquire("ip:" + request.getRemoteAddr())) {
+                throw new TooManyRequestsException("Превышена частота запросов с адреса " + request.getRemoteAddr());
+            }
+        }
+
+        if (loadShedder.isEnabled()) {
+            if (!loadShedder.tryAdmit()) {
+                throw new TooManyRequestsException("Сервер перегружен, повторите запрос позже");
+            }
+            request.setAttribute(ADMITTED_AT, loadShedder.now());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object admittedAt = request.getAttribute(ADMITTED_AT);
+
+        if (admittedAt != null) {
+            request.removeAttribute(ADMITTED_AT);
+            loadShedder.release();
+            loadShedder.recordLatency((Long) admittedAt);
+        }
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Long actingUserId(HttpServletRequest request) {
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(
+                HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+
+        if (variables == null) {
+            return null;
+        }
+
+        String value = variables.containsKey("userId") ? variables.get("userId")
+                : variables.containsKey("friendId") ? variables.get("id") : null;
+        if (value == null) {
+            return null;
+        }
+
+        Long userId;
+        try {
+            userId = Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return userStorage.findById(userId).isPresent() ? userId : null;
+    }
+}
@@ -0,0 +1,109 @@
+package ru.yandex.practicum.filmorate.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограничение частоты запросов по ключу клиента (пользователь или IP). Бакеты, которые дольше
+ * заданного времени не получали запросов, удаляются попутно с запросами не чаще раза за это время.
+ * Пока ключей столько, сколько позволяет предел, новые клиенты без поиска простаивающих бакетов
+ * попадают в один из {@link #OVERFLOW_STRIPES} общих бакетов по хешу ключа, так что один
+ * злоупотребляющий клиент не останавливает всех новых.
+ */
+@Slf4j
+@Component
+public class RateLimiter {
+
+    static final int OVERFLOW_STRIPES = 64;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final double permitsPerSecond;
+    private final int burst;
+    private final int maxBuckets;
+    private final long idleNanos;
+    private final LongSupplier clock;
+    private final TokenBucket[] overflow;
+    private final AtomicLong lastEviction;
+
+    @Autowired
+    public RateLimiter(@Value("${filmorate.rate-limit.enabled:false}") boolean enabled,
+                       @Value("${filmorate.rate-limit.permits-per-second:20}") double permitsPerSecond,
+                       @Value("${filmorate.rate-limit.burst:40}") int burst,
+                       @Value("${filmorate.rate-limit.max-buckets:100000}") int maxBuckets,
+                       @Value("${filmorate.rate-limit.idle-timeout-ms:60000}") long idleTimeoutMs) {
+        this(enabled, permitsPerSecond, burst, maxBuckets, idleTimeoutMs, System::nanoTime);
+    }
+
+    RateLimiter(boolean enabled, double permitsPerSecond, int burst, int maxBuckets, long idleTimeoutMs,
+                LongSupplier clock) {
+        this.enabled = enabled;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.maxBuckets = maxBuckets;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        this.clock = clock;
+        this.overflow = new TokenBucket[OVERFLOW_STRIPES];
+        for (int i = 0; i < OVERFLOW_STRIPES; i++) {
+            overflow[i] = new TokenBucket(permitsPerSecond, burst);
+        }
+        this.lastEviction = new AtomicLong(clock.getAsLong());
+    }
+
+    public boolean tryAcquire(String key) {
+        if (!enabled) {
+            return true;
+        }
+
+        long now = clock.getAsLong();
+        long last = lastEviction.get();
+
+        if (now - last > idleNanos && lastEviction.compareAndSet(last, now)) {
+            evictIdle();
+        }
+        return bucketFor(key, now).tryAcquire(now);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        int before = buckets.size();
+
+        buckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+
+        if (before != buckets.size()) {
+            log.debug("Удалено {} простаивающих бакетов ограничения частоты", before - buckets.size());
+        }
+    }
+
+    private TokenBucket bucketFor(String key, long now) {
+        TokenBucket bucket = buckets.get(key);
+
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxBuckets) {
+            return overflow[overflowStripe(key)];
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(permitsPerSecond, burst));
+    }
+
+    static int overflowStripe(String key) {
+        return Math.floorMod(key.hashCode(), OVERFLOW_STRIPES);
+    }
+}
@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Токен-бакет в форме GCRA: всё состояние — одно теоретическое время прихода следующего запроса,
+ * поэтому пополнение и списание токена делаются одним CAS без блокировок и без аллокаций.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    TokenBucket(double permitsPerSecond, int burst) {
+        this.intervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstNanos = intervalNanos * burst;
+    }
+
+    boolean tryAcquire(long now) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + intervalNanos;
+
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    boolean isIdle(long now, long idleNanos) {
+        long current = theoreticalArrival.get();
+        return current == Long.MIN_VALUE || now - current > idleNanos;
+    }
+}
@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+
+@Component
+public class HttpReplicationTransport implements ReplicationTransport {
+
+    private final RestClient restClient;
+
+    public HttpReplicationTransport(@Value("${filmorate.replication.secret:}") String secret) {
+        this.restClient = RestClient.builder()
+                .defaultHeader(SECRET_HEADER, secret)
+                .build();
+    }
+
+    @Override
+    public void send(String peer, List<ReplicationOp> ops) {
+        restClient.post()
+                .uri(peer + "/internal/replication")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ops)
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    @Override
+    public List<ReplicationOp> snapshot(String peer) {
+        return restClient.get()
+                .uri(peer + "/internal/replication/snapshot")
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .body(new ParameterizedTypeReference<>() {
+                });
+    }
+}
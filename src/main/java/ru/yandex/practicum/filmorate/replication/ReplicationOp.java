@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+/**
+ * Операция журнала репликации. Порядок операций над одним ключом задаёт пара (timestamp, node):
+ * побеждает операция с большей ламповской меткой, при равенстве — с большим номером узла.
+ */
+public record ReplicationOp(Type type, Long id, Long otherId, Film film, User user, long timestamp, int node) {
+
+    public enum Type {
+        FILM_UPSERT,
+        USER_UPSERT,
+        LIKE_ADD,
+        LIKE_REMOVE,
+        FRIEND_ADD,
+        FRIEND_REMOVE
+    }
+
+    Stamp stamp() {
+        return new Stamp(timestamp, node, type == Type.LIKE_REMOVE || type == Type.FRIEND_REMOVE);
+    }
+
+    Key key() {
+        return key(type, id, otherId);
+    }
+
+    static Key key(Type type, Long id, Long otherId) {
+        return switch (type) {
+            case FILM_UPSERT -> new Key(Key.FILM, id, 0L);
+            case USER_UPSERT -> new Key(Key.USER, id, 0L);
+            case LIKE_ADD, LIKE_REMOVE -> new Key(Key.LIKE, id, otherId);
+            case FRIEND_ADD, FRIEND_REMOVE -> new Key(Key.FRIEND, Math.min(id, otherId), Math.max(id, otherId));
+        };
+    }
+
+    /**
+     * Версия последней применённой к ключу операции; у удалений (лайка, дружбы) это надгробие.
+     */
+    record Stamp(long timestamp, int node, boolean removed) {
+
+        static final Stamp ZERO = new Stamp(0, -1, false);
+
+        boolean isNewerThan(Stamp other) {
+            return other == null || timestamp > other.timestamp
+                    || timestamp == other.timestamp && node > other.node;
+        }
+    }
+
+    record Key(int kind, long first, long second) {
+        static final int FILM = 0;
+        static final int USER = 1;
+        static final int LIKE = 2;
+        static final int FRIEND = 3;
+    }
+}
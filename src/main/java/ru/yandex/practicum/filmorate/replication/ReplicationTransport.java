@@ -0,0 +1,12 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import java.util.List;
+
+public interface ReplicationTransport {
+
+    String SECRET_HEADER = "X-Replication-Secret";
+
+    void send(String peer, List<ReplicationOp> ops);
+
+    List<ReplicationOp> snapshot(String peer);
+}
@@ -0,0 +1,546 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.cache.JsonCache;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.replication.ReplicationOp.Key;
+import ru.yandex.practicum.filmorate.replication.ReplicationOp.Stamp;
+import ru.yandex.practicum.filmorate.replication.ReplicationOp.Type;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserIndex;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Репликация журнала операций между узлами. Сущности и связи (лайки, дружба) реплицируются
+ * как LWW-регистры по ключу: каждый узел применяет операцию, только если она новее уже виденной,
+ * поэтому узлы сходятся независимо от порядка доставки. Id новых сущностей делятся между узлами
+ * по остатку от деления на число узлов.
+ * <p>
+ * Локальная запись и её метка ставятся под блокировкой ключа (одной из {@link #KEY_LOCKS}), той же,
+ * под которой применяются чужие операции; карта меток при этом только обновляется и не держит
+ * бакет на время записи в хранилище. Очереди узлов ограничены: если очередь переполнилась, ему
+ * отправляется снимок состояния, а новые операции продолжают копиться. После доставки снимка из
+ * очереди уходят только операции с меткой не выше снятой перед ним, остальные досылаются.
+ * Узел при старте и после потери отложенных операций сам забирает снимки у пиров. Надгробия
+ * удалений хранятся в пределах {@code max-tombstones}.
+ */
+@Slf4j
+@Component
+public class Replicator {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int KEY_LOCKS = 256;
+    private static final long NO_SNAPSHOT = -1L;
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final UserIndex userIndex;
+    private final JsonCache jsonCache;
+    private final ReplicationTransport transport;
+    private final boolean enabled;
+    private final int nodeIndex;
+    private final int nodeCount;
+    private final int maxOutbox;
+    private final int maxDeferred;
+    private final int maxTombstones;
+    private final Map<String, Outbox> outboxes = new HashMap<>();
+    private final Map<Key, Stamp> applied = new ConcurrentHashMap<>();
+    private final Deque<ReplicationOp> deferred = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger deferredCount = new AtomicInteger();
+    private final Queue<Tombstone> tombstones = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger tombstoneCount = new AtomicInteger();
+    private final Set<String> pendingPulls = ConcurrentHashMap.newKeySet();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong filmSequence = new AtomicLong();
+    private final AtomicLong userSequence = new AtomicLong();
+    private final ReentrantLock[] keyLocks = new ReentrantLock[KEY_LOCKS];
+    private final ReadWriteLock commitGate = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService sender;
+
+    public Replicator(FilmStorage filmStorage,
+                      UserStorage userStorage,
+                      UserIndex userIndex,
+                      JsonCache jsonCache,
+                      ReplicationTransport transport,
+                      @Value("${filmorate.replication.enabled:false}") boolean enabled,
+                      @Value("${filmorate.replication.node-index:0}") int nodeIndex,
+                      @Value("${filmorate.replication.node-count:1}") int nodeCount,
+                      @Value("${filmorate.replication.peers:}") List<String> peers,
+                      @Value("${filmorate.replication.max-outbox:100000}") int maxOutbox,
+                      @Value("${filmorate.replication.max-deferred:10000}") int maxDeferred,
+                      @Value("${filmorate.replication.max-tombstones:1000000}") int maxTombstones) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.userIndex = userIndex;
+        this.jsonCache = jsonCache;
+        this.transport = transport;
+        this.enabled = enabled;
+        this.nodeIndex = nodeIndex;
+        this.nodeCount = nodeCount;
+        this.maxOutbox = maxOutbox;
+        this.maxDeferred = maxDeferred;
+        this.maxTombstones = maxTombstones;
+        for (int i = 0; i < KEY_LOCKS; i++) {
+            keyLocks[i] = new ReentrantLock();
+        }
+
+        peers.stream()
+                .filter(peer -> !peer.isBlank())
+                .forEach(peer -> outboxes.put(peer.trim(), new Outbox()));
+
+        if (enabled) {
+            pendingPulls.addAll(outboxes.keySet());
+            sender = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "replication-sender"));
+            sender.scheduleWithFixedDelay(this::sync, 100, 100, TimeUnit.MILLISECONDS);
+            log.info("Репликация включена: узел {} из {}, пиры {}", nodeIndex, nodeCount, outboxes.keySet());
+        } else {
+            sender = null;
+        }
+    }
+
+    public static Replicator disabled() {
+        return new Replicator(null, null, null, new JsonCache(), null, false, 0, 1, List.of(), 0, 0, 0);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long nextFilmId() {
+        return (filmSequence.incrementAndGet() - 1) * nodeCount + nodeIndex + 1;
+    }
+
+    public long nextUserId() {
+        return (userSequence.incrementAndGet() - 1) * nodeCount + nodeIndex + 1;
+    }
+
+    public Film upsertFilm(Long id, Supplier<Film> write) {
+        return writeLocal(ReplicationOp.key(Type.FILM_UPSERT, id, null), write, (film, timestamp) ->
+                new ReplicationOp(Type.FILM_UPSERT, id, null, copyOf(film), null, timestamp, nodeIndex));
+    }
+
+    public User upsertUser(Long id, Supplier<User> write) {
+        return writeLocal(ReplicationOp.key(Type.USER_UPSERT, id, null), write, (user, timestamp) ->
+                new ReplicationOp(Type.USER_UPSERT, id, null, null, copyOf(user), timestamp, nodeIndex));
+    }
+
+    public void addLike(Long filmId, Long userId, Runnable write) {
+        writeRelation(Type.LIKE_ADD, filmId, userId, write);
+    }
+
+    public void removeLike(Long filmId, Long userId, Runnable write) {
+        writeRelation(Type.LIKE_REMOVE, filmId, userId, write);
+    }
+
+    public void addFriend(Long userId, Long friendId, Runnable write) {
+        writeRelation(Type.FRIEND_ADD, userId, friendId, write);
+    }
+
+    public void removeFriend(Long userId, Long friendId, Runnable write) {
+        writeRelation(Type.FRIEND_REMOVE, userId, friendId, write);
+    }
+
+    public void apply(List<ReplicationOp> ops) {
+        for (ReplicationOp op : ops) {
+            clock.accumulateAndGet(op.timestamp(), Math::max);
+
+            if (!tryApply(op)) {
+                defer(op);
+            }
+        }
+
+        for (Iterator<ReplicationOp> iterator = deferred.iterator(); iterator.hasNext(); ) {
+            if (tryApply(iterator.next())) {
+                iterator.remove();
+                deferredCount.decrementAndGet();
+            }
+        }
+        evictTombstones();
+    }
+
+    /**
+     * Текущее состояние узла в виде операций с метками последних записей: сначала сущности,
+     * затем связи и надгробия удалений. Применение снимка у пира сводит его состояние с нашим.
+     */
+    public List<ReplicationOp> snapshot() {
+        List<ReplicationOp> ops = new ArrayList<>();
+        Collection<Film> films = filmStorage.findAll();
+        Collection<User> users = userStorage.findAll();
+
+        films.forEach(film -> ops.add(stamped(Type.FILM_UPSERT, film.getId(), null, copyOf(film), null)));
+        users.forEach(user -> ops.add(stamped(Type.USER_UPSERT, user.getId(), null, null, copyOf(user))));
+        for (Film film : films) {
+            for (Long userId : film.getLikes()) {
+                ops.add(stamped(Type.LIKE_ADD, film.getId(), userId, null, null));
+            }
+        }
+        for (User user : users) {
+            for (Long friendId : user.getFriends()) {
+                if (user.getId() < friendId) {
+                    ops.add(stamped(Type.FRIEND_ADD, user.getId(), friendId, null, null));
+                }
+            }
+        }
+        applied.forEach((key, stamp) -> {
+            if (stamp.removed()) {
+                Type type = key.kind() == Key.LIKE ? Type.LIKE_REMOVE : Type.FRIEND_REMOVE;
+                ops.add(new ReplicationOp(type, key.first(), key.second(), null, null, stamp.timestamp(),
+                        stamp.node()));
+            }
+        });
+
+        ops.removeIf(op -> op == null);
+        return ops;
+    }
+
+    /**
+     * Забирает снимки у пиров, с которыми состояние могло разойтись: при старте узла и после
+     * того, как переполнилась очередь отложенных операций.
+     */
+    public synchronized void resync() {
+        for (Iterator<String> iterator = pendingPulls.iterator(); iterator.hasNext(); ) {
+            String peer = iterator.next();
+            try {
+                List<ReplicationOp> snapshot = transport.snapshot(peer);
+                apply(snapshot);
+                iterator.remove();
+                log.info("Применён снимок узла {}: {} операций", peer, snapshot.size());
+            } catch (RuntimeException e) {
+                log.warn("Не удалось получить снимок узла {}: {}", peer, e.getMessage());
+            }
+        }
+    }
+
+    public synchronized void flush() {
+        outboxes.forEach((peer, outbox) -> {
+            if (outbox.needsSnapshot && !pushSnapshot(peer, outbox)) {
+                return;
+            }
+
+            while (!outbox.ops.isEmpty()) {
+                List<ReplicationOp> batch = new ArrayList<>(BATCH_SIZE);
+                Iterator<ReplicationOp> iterator = outbox.ops.iterator();
+                while (iterator.hasNext() && batch.size() < BATCH_SIZE) {
+                    batch.add(iterator.next());
+                }
+
+                try {
+                    transport.send(peer, batch);
+                } catch (RuntimeException e) {
+                    log.warn("Не удалось отправить {} операций на узел {}: {}", batch.size(), peer, e.getMessage());
+                    return;
+                }
+
+                int sent = 0;
+                for (ReplicationOp op : batch) {
+                    if (outbox.ops.removeFirstOccurrence(op)) {
+                        sent++;
+                    }
+                }
+                outbox.size.addAndGet(-sent);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (sender != null) {
+            sender.shutdown();
+            flush();
+        }
+    }
+
+    private void sync() {
+        resync();
+        flush();
+    }
+
+    private void writeRelation(Type type, Long id, Long otherId, Runnable write) {
+        writeLocal(ReplicationOp.key(type, id, otherId), () -> {
+            write.run();
+            return null;
+        }, (ignored, timestamp) -> new ReplicationOp(type, id, otherId, null, null, timestamp, nodeIndex));
+    }
+
+    private <T> T writeLocal(Key key, Supplier<T> write, BiFunction<T, Long, ReplicationOp> toOp) {
+        if (!enabled) {
+            return write.get();
+        }
+
+        T value;
+        ReentrantLock keyLock = lockFor(key);
+        keyLock.lock();
+        try {
+            commitGate.readLock().lock();
+            try {
+                value = write.get();
+                ReplicationOp op = toOp.apply(value, clock.incrementAndGet());
+                Stamp stamp = op.stamp();
+
+                applied.put(key, stamp);
+                trackTombstone(key, stamp);
+                enqueue(op);
+            } finally {
+                commitGate.readLock().unlock();
+            }
+        } finally {
+            keyLock.unlock();
+        }
+        evictTombstones();
+
+        return value;
+    }
+
+    private void enqueue(ReplicationOp op) {
+        outboxes.forEach((peer, outbox) -> {
+            outbox.ops.add(op);
+            if (outbox.size.incrementAndGet() > maxOutbox) {
+                trim(peer, outbox);
+            }
+        });
+    }
+
+    /**
+     * Выбрасывает из переполненной очереди самые старые операции, которые покроет снимок. Пока
+     * снимок не снят, это любая операция очереди: все они уже записаны. Пока снимок отправляется,
+     * только операции с меткой не выше снятой перед ним; более новые остаются в очереди сверх
+     * лимита до конца отправки.
+     */
+    private void trim(String peer, Outbox outbox) {
+        synchronized (outbox) {
+            if (!outbox.needsSnapshot) {
+                outbox.needsSnapshot = true;
+                log.warn("Очередь узла {} превысила {} операций, узлу будет отправлен снимок", peer, maxOutbox);
+            }
+
+            long covered = outbox.snapshotStamp == NO_SNAPSHOT ? Long.MAX_VALUE : outbox.snapshotStamp;
+            while (outbox.size.get() > maxOutbox) {
+                ReplicationOp oldest = outbox.ops.peekFirst();
+                if (oldest == null || oldest.timestamp() > covered || !outbox.ops.remove(oldest)) {
+                    return;
+                }
+                outbox.size.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Метка снимается под исключительной блокировкой {@code commitGate}: к этому моменту каждая
+     * локальная запись с меткой не выше неё уже лежит в хранилище и в карте меток, поэтому попадёт
+     * в снимок. Записи, начатые позже, получат метку выше и останутся в очереди.
+     */
+    private boolean pushSnapshot(String peer, Outbox outbox) {
+        long snapshotStamp;
+        commitGate.writeLock().lock();
+        try {
+            snapshotStamp = clock.get();
+        } finally {
+            commitGate.writeLock().unlock();
+        }
+        synchronized (outbox) {
+            outbox.snapshotStamp = snapshotStamp;
+        }
+
+        List<ReplicationOp> snapshot = snapshot();
+        try {
+            for (int from = 0; from < snapshot.size(); from += BATCH_SIZE) {
+                transport.send(peer, snapshot.subList(from, Math.min(from + BATCH_SIZE, snapshot.size())));
+            }
+        } catch (RuntimeException e) {
+            synchronized (outbox) {
+                outbox.snapshotStamp = NO_SNAPSHOT;
+            }
+            log.warn("Не удалось отправить снимок на узел {}: {}", peer, e.getMessage());
+            return false;
+        }
+
+        int covered = 0;
+        synchronized (outbox) {
+            for (Iterator<ReplicationOp> iterator = outbox.ops.iterator(); iterator.hasNext(); ) {
+                if (iterator.next().timestamp() <= snapshotStamp) {
+                    iterator.remove();
+                    covered++;
+                }
+            }
+            outbox.size.addAndGet(-covered);
+            outbox.snapshotStamp = NO_SNAPSHOT;
+            outbox.needsSnapshot = false;
+        }
+
+        log.info("Узлу {} отправлен снимок: {} операций, из очереди снято {} покрытых им", peer,
+                snapshot.size(), covered);
+        return true;
+    }
+
+    private void defer(ReplicationOp op) {
+        deferred.add(op);
+
+        if (deferredCount.incrementAndGet() > maxDeferred && deferred.pollFirst() != null) {
+            deferredCount.decrementAndGet();
+            if (pendingPulls.addAll(outboxes.keySet())) {
+                log.warn("Очередь отложенных операций превысила {}, состояние будет сверено по снимкам пиров",
+                        maxDeferred);
+            }
+        }
+    }
+
+    private boolean tryApply(ReplicationOp op) {
+        if (!isApplicable(op)) {
+            return false;
+        }
+
+        Key key = op.key();
+        Stamp stamp = op.stamp();
+        ReentrantLock keyLock = lockFor(key);
+        keyLock.lock();
+        try {
+            if (stamp.isNewerThan(applied.get(key))) {
+                applyToStorage(op);
+                applied.put(key, stamp);
+                trackTombstone(key, stamp);
+            }
+        } finally {
+            keyLock.unlock();
+        }
+
+        return true;
+    }
+
+    private ReentrantLock lockFor(Key key) {
+        return keyLocks[Math.floorMod(key.hashCode(), KEY_LOCKS)];
+    }
+
+    private void trackTombstone(Key key, Stamp stamp) {
+        if (stamp.removed()) {
+            tombstones.add(new Tombstone(key, stamp));
+            tombstoneCount.incrementAndGet();
+        }
+    }
+
+    private void evictTombstones() {
+        while (tombstoneCount.get() > maxTombstones) {
+            Tombstone oldest = tombstones.poll();
+            if (oldest == null) {
+                return;
+            }
+            tombstoneCount.decrementAndGet();
+            applied.remove(oldest.key(), oldest.stamp());
+        }
+    }
+
+    private ReplicationOp stamped(Type type, Long id, Long otherId, Film film, User user) {
+        Stamp stamp = applied.getOrDefault(ReplicationOp.key(type, id, otherId), Stamp.ZERO);
+
+        if (stamp.removed()) {
+            return null;
+        }
+        return new ReplicationOp(type, id, otherId, film, user, stamp.timestamp(), stamp.node());
+    }
+
+    private boolean isApplicable(ReplicationOp op) {
+        return switch (op.type()) {
+            case FILM_UPSERT, USER_UPSERT -> true;
+            case LIKE_ADD, LIKE_REMOVE -> filmStorage.findById(op.id()).isPresent()
+                    && userStorage.findById(op.otherId()).isPresent();
+            case FRIEND_ADD, FRIEND_REMOVE -> userStorage.findById(op.id()).isPresent()
+                    && userStorage.findById(op.otherId()).isPresent();
+        };
+    }
+
+    private void applyToStorage(ReplicationOp op) {
+        switch (op.type()) {
+            case FILM_UPSERT -> {
+                Film film = copyOf(op.film());
+                filmStorage.findById(op.id()).ifPresent(existing -> film.setLikes(existing.getLikes()));
+                filmStorage.update(film);
+                jsonCache.films().invalidate(op.id());
+            }
+            case USER_UPSERT -> {
+                User user = copyOf(op.user());
+                User previous = userStorage.findById(op.id()).orElse(null);
+                if (previous != null) {
+                    user.setFriends(previous.getFriends());
+                }
+                userIndex.reindex(previous, userStorage.update(user));
+                jsonCache.users().invalidate(op.id());
+            }
+            case LIKE_ADD -> {
+                filmStorage.addLike(op.id(), op.otherId());
+                jsonCache.films().invalidate(op.id());
+            }
+            case LIKE_REMOVE -> {
+                filmStorage.removeLike(op.id(), op.otherId());
+                jsonCache.films().invalidate(op.id());
+            }
+            case FRIEND_ADD -> {
+                userStorage.addFriend(op.id(), op.otherId());
+                invalidateUsers(List.of(op.id(), op.otherId()));
+            }
+            case FRIEND_REMOVE -> {
+                userStorage.removeFriend(op.id(), op.otherId());
+                invalidateUsers(List.of(op.id(), op.otherId()));
+            }
+        }
+    }
+
+    private void invalidateUsers(Collection<Long> ids) {
+        ids.forEach(jsonCache.users()::invalidate);
+    }
+
+    private static Film copyOf(Film film) {
+        Film copy = new Film();
+        copy.setId(film.getId());
+        copy.setName(film.getName());
+        copy.setDescription(film.getDescription());
+        copy.setReleaseDate(film.getReleaseDate());
+        copy.setDuration(film.getDuration());
+        return copy;
+    }
+
+    private static User copyOf(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setEmail(user.getEmail());
+        copy.setLogin(user.getLogin());
+        copy.setName(user.getName());
+        copy.setBirthday(user.getBirthday());
+        return copy;
+    }
+
+    private record Tombstone(Key key, Stamp stamp) {
+    }
+
+    private static final class Outbox {
+        private final Deque<ReplicationOp> ops = new ConcurrentLinkedDeque<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private volatile boolean needsSnapshot;
+        private volatile long snapshotStamp = NO_SNAPSHOT;
+    }
+}
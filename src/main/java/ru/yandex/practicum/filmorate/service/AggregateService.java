@@ -0,0 +1,198 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.dto.AggregateSnapshot;
+import ru.yandex.practicum.filmorate.dto.FilmSummary;
+import ru.yandex.practicum.filmorate.dto.SuggestionList;
+import ru.yandex.practicum.filmorate.dto.UserSummary;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Фоновый пересчёт агрегатов, которым допустимо отставать на несколько секунд: топ популярных
+ * фильмов и распределение пользователей по числу друзей. Результат публикуется неизменяемым
+ * снимком; если планировщик отстал больше допустимого, снимок пересчитывается при запросе
+ * один раз, остальные читатели ждут этот пересчёт. Рекомендации друзей друзей считаются по запросу
+ * и хранятся в ограниченном LRU-кэше с тем же допустимым отставанием.
+ */
+@Slf4j
+@Service
+public class AggregateService {
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final LikeBuffer likeBuffer;
+    private final int topSize;
+    private final int suggestionsSize;
+    private final Map<Long, SuggestionList> suggestionsCache;
+    private final Duration maxStaleness;
+    private final ForkJoinPool pool;
+    private final Clock clock;
+    private volatile AggregateSnapshot snapshot = AggregateSnapshot.EMPTY;
+
+    @Autowired
+    public AggregateService(FilmStorage filmStorage,
+                            UserStorage userStorage,
+                            LikeBuffer likeBuffer,
+                            @Value("${filmorate.aggregates.top-size:100}") int topSize,
+                            @Value("${filmorate.aggregates.suggestions-size:10}") int suggestionsSize,
+                            @Value("${filmorate.aggregates.suggestions-cache-size:10000}") int suggestionsCacheSize,
+                            @Value("${filmorate.aggregates.max-staleness-ms:10000}") long maxStalenessMs,
+                            @Value("${filmorate.aggregates.parallelism:2}") int parallelism) {
+        this(filmStorage, userStorage, likeBuffer, topSize, suggestionsSize, suggestionsCacheSize, maxStalenessMs,
+                parallelism, Clock.systemUTC());
+    }
+
+    AggregateService(FilmStorage filmStorage, UserStorage userStorage, LikeBuffer likeBuffer, int topSize,
+                     int suggestionsSize, int suggestionsCacheSize, long maxStalenessMs, int parallelism,
+                     Clock clock) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.likeBuffer = likeBuffer;
+        this.topSize = topSize;
+        this.suggestionsSize = suggestionsSize;
+        this.suggestionsCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SuggestionList> eldest) {
+                return size() > suggestionsCacheSize;
+            }
+        };
+        this.maxStaleness = Duration.ofMillis(maxStalenessMs);
+        this.pool = new ForkJoinPool(parallelism);
+        this.clock = clock;
+    }
+
+    public AggregateSnapshot current() {
+        AggregateSnapshot current = snapshot;
+
+        if (!isStale(current.computedAt())) {
+            return current;
+        }
+
+        synchronized (this) {
+            current = snapshot;
+            return isStale(current.computedAt()) ? refresh() : current;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.aggregates.interval-ms:2000}")
+    void scheduledRefresh() {
+        refresh();
+    }
+
+    public synchronized AggregateSnapshot refresh() {
+        long start = System.nanoTime();
+        likeBuffer.flushAll();
+
+        AggregateSnapshot computed = pool.submit(this::compute).join();
+        snapshot = computed;
+
+        log.debug("Агрегаты пересчитаны за {} мс: {} фильмов в топе, {} пользователей",
+                Duration.ofNanos(System.nanoTime() - start).toMillis(), computed.popular().size(),
+                computed.friendCounts().values().stream().mapToLong(Long::longValue).sum());
+        return computed;
+    }
+
+    public List<FilmSummary> getPopular(AggregateSnapshot snapshot, int count) {
+        if (count <= 0) {
+            throw new ValidationException("Параметр count должен быть положительным");
+        }
+        List<FilmSummary> popular = snapshot.popular();
+        return popular.subList(0, Math.min(count, popular.size()));
+    }
+
+    public SuggestionList getSuggestions(Long userId) {
+        SuggestionList cached;
+        synchronized (suggestionsCache) {
+            cached = suggestionsCache.get(userId);
+        }
+
+        if (cached != null && !isStale(cached.computedAt())) {
+            return cached;
+        }
+        if (userStorage.findById(userId).isEmpty()) {
+            throw NotFoundException.user(userId);
+        }
+
+        SuggestionList computed = new SuggestionList(clock.instant(), suggest(userId));
+        synchronized (suggestionsCache) {
+            suggestionsCache.put(userId, computed);
+        }
+        return computed;
+    }
+
+    public long ageMillis(AggregateSnapshot snapshot) {
+        return ageMillis(snapshot.computedAt());
+    }
+
+    public long ageMillis(Instant computedAt) {
+        return Math.max(0, Duration.between(computedAt, clock.instant()).toMillis());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    private boolean isStale(Instant computedAt) {
+        return Duration.between(computedAt, clock.instant()).compareTo(maxStaleness) > 0;
+    }
+
+    private AggregateSnapshot compute() {
+        Instant computedAt = clock.instant();
+        List<FilmSummary> popular = filmStorage.findPopular(topSize).stream().map(FilmSummary::from).toList();
+
+        List<User> users = List.copyOf(userStorage.findAll());
+
+        TreeMap<Integer, Long> friendCounts = users.parallelStream()
+                .collect(Collectors.groupingByConcurrent(User::getFriendsCount, Collectors.counting()))
+                .entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, Long::sum, TreeMap::new));
+
+        return new AggregateSnapshot(computedAt, popular, Collections.unmodifiableSortedMap(friendCounts));
+    }
+
+    private List<UserSummary> suggest(Long userId) {
+        Set<Long> friends = userStorage.getFriendIds(userId);
+        Map<Long, Integer> mutualCounts = new HashMap<>();
+
+        for (Long friendId : friends) {
+            for (Long candidate : userStorage.getFriendIds(friendId)) {
+                if (!candidate.equals(userId) && !friends.contains(candidate)) {
+                    mutualCounts.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+
+        return mutualCounts.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(suggestionsSize)
+                .map(entry -> userStorage.findById(entry.getKey()))
+                .flatMap(Optional::stream)
+                .map(UserSummary::from)
+                .toList();
+    }
+}
@@ -2,13 +2,21 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.JsonCache;
+import ru.yandex.practicum.filmorate.cache.JsonFragmentCache;
+import ru.yandex.practicum.filmorate.cache.SingleFlight;
+import ru.yandex.practicum.filmorate.cache.SingleFlights;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.profiling.ServiceOperationEvent;
+import ru.yandex.practicum.filmorate.profiling.StorageOperationEvent;
+import ru.yandex.practicum.filmorate.replication.Replicator;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.validation.DayClock;
+import ru.yandex.practicum.filmorate.validation.FilmValidator;
 
-import java.time.LocalDate;
 import java.util.Collection;
 
 @Slf4j
@@ -17,54 +25,87 @@ public class FilmService {
 
     private final FilmStorage filmStorage;
     private final UserStorage userStorage;
-
-    public FilmService(FilmStorage filmStorage, UserStorage userStorage) {
+    private final LikeBuffer likeBuffer;
+    private final JsonFragmentCache filmCache;
+    private final Replicator replicator;
+    private final SingleFlight<Collection<Film>> popularFlight;
+    private final FilmValidator filmValidator = new FilmValidator(DayClock.system());
+
+    public FilmService(FilmStorage filmStorage, UserStorage userStorage, LikeBuffer likeBuffer,
+                       JsonCache jsonCache, Replicator replicator, SingleFlights singleFlights) {
         this.filmStorage = filmStorage;
         this.userStorage = userStorage;
+        this.likeBuffer = likeBuffer;
+        this.filmCache = jsonCache.films();
+        this.replicator = replicator;
+        this.popularFlight = singleFlights.popularFilms();
     }
 
     public Collection<Film> findAll() {
         log.info("Запрос вывода всех фильмов");
+        filmCache.beforeRead();
         return filmStorage.findAll();
     }
 
     public Film create(Film film) {
         log.info("Запрос на создание фильма");
-        validateFilm(film);
-        return filmStorage.create(film);
+        filmValidator.validate(film);
+        Film created = store(film);
+        filmCache.invalidate(created.getId());
+        return created;
     }
 
     public Film update(Film film) {
         log.info("Запрос на обновление фильма с id={}", film.getId());
         getFilmOrThrow(film.getId());
-        validateFilm(film);
-        return filmStorage.update(film);
+        likeBuffer.flush(film.getId());
+        filmValidator.validate(film);
+        Film updated = replicator.upsertFilm(film.getId(), () -> filmStorage.update(film));
+        filmCache.invalidate(updated.getId());
+        return updated;
     }
 
     public Film findById(Long id) {
-        return getFilmOrThrow(id);
+        ServiceOperationEvent event = ServiceOperationEvent.start();
+        filmCache.beforeRead();
+        Film film = getFilmOrThrow(id);
+        event.finish("getFilm", id, 0, film.getLikesCount());
+        return film;
+    }
+
+    public String getFilmTag(Long id) {
+        if (!filmCache.isKnown(id)) {
+            getFilmOrThrow(id);
+        }
+        return filmCache.entityTag(id);
+    }
+
+    public String getFilmsTag(String discriminator) {
+        return filmCache.collectionTag(discriminator);
     }
 
     public void addLike(Long filmId, Long userId) {
         log.info("Добавление лайка пользователем с id={} к фильму с id={}", userId, filmId);
+        ServiceOperationEvent event = ServiceOperationEvent.start();
 
         checkUserExists(userId);
-        Film film = getFilmOrThrow(filmId);
+        getFilmOrThrow(filmId);
 
-        film.getLikes().add(userId);
-        filmStorage.update(film);
+        replicator.addLike(filmId, userId, () -> likeBuffer.addLike(filmId, userId));
+        event.finish("addLike", filmId, userId, 0);
 
         log.info("Лайк к фильму с id={} от пользователя с id={} добавлен", filmId, userId);
     }
 
     public void removeLike(Long filmId, Long userId) {
         log.info("Удаление лайка пользователя с id={} к фильму с id={}", userId, filmId);
+        ServiceOperationEvent event = ServiceOperationEvent.start();
 
         checkUserExists(userId);
-        Film film = getFilmOrThrow(filmId);
+        getFilmOrThrow(filmId);
 
-        film.getLikes().remove(userId);
-        filmStorage.update(film);
+        replicator.removeLike(filmId, userId, () -> likeBuffer.removeLike(filmId, userId));
+        event.finish("removeLike", filmId, userId, 0);
 
         log.info("Лайк к фильму с id={} от пользователя с id={} удален", filmId, userId);
     }
@@ -76,48 +117,38 @@ public class FilmService {
             throw new ValidationException("Параметр count должен быть положительным");
         }
 
-        return filmStorage.findAll().stream()
-                .sorted((f1, f2) -> Integer.compare(f2.getLikes().size(), f1.getLikes().size()))
-                .limit(count)
-                .toList();
-    }
-
-    private void validateFilm(Film film) {
-        String name = film.getName();
-
-        if (name == null || name.isBlank()) {
-            throw new ValidationException("Название не может быть пустым");
-        }
-
-        String description = film.getDescription();
+        ServiceOperationEvent event = ServiceOperationEvent.start();
+        filmCache.beforeRead();
 
-        if (description != null && description.length() > 200) {
-            throw new ValidationException("Максимальная длина описания — 200 символов");
-        }
+        Collection<Film> popular = popularFlight.execute(count + ":" + filmCache.globalVersion(), () -> {
+            StorageOperationEvent storageEvent = StorageOperationEvent.start();
+            Collection<Film> films = filmStorage.findPopular(count);
+            storageEvent.finish(filmStorage, "findPopular", count, films.size());
+            return films;
+        });
 
-        LocalDate releaseDate = film.getReleaseDate();
-
-        if (releaseDate == null ||
-                releaseDate.isBefore(LocalDate.of(1895, 12, 28))) {
-            throw new ValidationException("Дата релиза — не раньше 28 декабря 1895 года");
-        }
-
-        if (releaseDate.isAfter(LocalDate.now())) {
-            throw new ValidationException("Дата релиза не может быть в будущем");
-        }
+        event.finish("getPopular", count, 0, popular.size());
+        return popular;
+    }
 
-        if (film.getDuration() <= 0) {
-            throw new ValidationException("Продолжительность фильма должна быть положительным числом");
+    private Film store(Film film) {
+        if (!replicator.isEnabled()) {
+            return filmStorage.create(film);
         }
+        film.setId(replicator.nextFilmId());
+        return replicator.upsertFilm(film.getId(), () -> filmStorage.update(film));
     }
 
     private Film getFilmOrThrow(Long filmId) {
+        if (filmId == null) {
+            throw NotFoundException.film(filmId);
+        }
         return filmStorage.findById(filmId)
-                .orElseThrow(() -> new NotFoundException("Фильм с id=" + filmId + " не найден"));
+                .orElseThrow(() -> NotFoundException.film(filmId));
     }
 
     private void checkUserExists(Long userId) {
         userStorage.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
+                .orElseThrow(() -> NotFoundException.user(userId));
     }
 }
\ No newline at end of file
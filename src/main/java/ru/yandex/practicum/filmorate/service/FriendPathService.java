@@ -0,0 +1,163 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.JsonCache;
+import ru.yandex.practicum.filmorate.cache.JsonFragmentCache;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.graph.FriendGraph;
+import ru.yandex.practicum.filmorate.graph.ShortestPath;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Кратчайшая цепочка друзей между двумя пользователями. Граф дружбы держится снимком: после
+ * изменений пользователей он перестраивается не чаще раза в {@code filmorate.path.max-staleness-ms}.
+ * Перестраивает один поток, остальные тем временем ищут по прежнему снимку. Несуществующие id
+ * отсекаются по хранилищу до обращения к графу; если существующего пользователя в снимке ещё нет,
+ * граф перестраивается сразу.
+ */
+@Slf4j
+@Service
+public class FriendPathService {
+
+    private final UserStorage userStorage;
+    private final JsonFragmentCache userCache;
+    private final int maxDepth;
+    private final int maxVisited;
+    private final int parallelThreshold;
+    private final long budgetNanos;
+    private final Duration maxStaleness;
+    private final Clock clock;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile GraphSnapshot snapshot;
+
+    @Autowired
+    public FriendPathService(UserStorage userStorage,
+                             JsonCache jsonCache,
+                             @Value("${filmorate.path.max-depth:6}") int maxDepth,
+                             @Value("${filmorate.path.max-visited:1000000}") int maxVisited,
+                             @Value("${filmorate.path.parallel-threshold:4096}") int parallelThreshold,
+                             @Value("${filmorate.path.budget-ms:200}") long budgetMs,
+                             @Value("${filmorate.path.max-staleness-ms:1000}") long maxStalenessMs) {
+        this(userStorage, jsonCache, maxDepth, maxVisited, parallelThreshold, budgetMs, maxStalenessMs,
+                Clock.systemUTC());
+    }
+
+    FriendPathService(UserStorage userStorage, JsonCache jsonCache, int maxDepth, int maxVisited,
+                      int parallelThreshold, long budgetMs, long maxStalenessMs, Clock clock) {
+        this.userStorage = userStorage;
+        this.userCache = jsonCache.users();
+        this.maxDepth = maxDepth;
+        this.maxVisited = maxVisited;
+        this.parallelThreshold = parallelThreshold;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        this.maxStaleness = Duration.ofMillis(maxStalenessMs);
+        this.clock = clock;
+    }
+
+    public List<User> getPath(Long userId, Long otherId) {
+        log.info("Поиск цепочки друзей: id={}, id={}", userId, otherId);
+        long deadline = System.nanoTime() + budgetNanos;
+
+        checkUserExists(userId);
+        checkUserExists(otherId);
+
+        FriendGraph snapshot = graph(false);
+        int from = snapshot.indexOf(userId);
+        int to = snapshot.indexOf(otherId);
+        if (from < 0 || to < 0) {
+            snapshot = graph(true);
+            from = snapshot.indexOf(userId);
+            to = snapshot.indexOf(otherId);
+        }
+        if (from < 0) {
+            throw NotFoundException.user(userId);
+        }
+        if (to < 0) {
+            throw NotFoundException.user(otherId);
+        }
+
+        ShortestPath.Result result = new ShortestPath(snapshot, maxDepth, maxVisited, parallelThreshold)
+                .find(from, to, deadline);
+
+        if (result.limitReached()) {
+            throw new NotFoundException("Цепочка друзей между id=" + userId + " и id=" + otherId
+                    + " не найдена в пределах ограничений поиска");
+        }
+        if (!result.isFound()) {
+            throw new NotFoundException("Пользователи id=" + userId + " и id=" + otherId
+                    + " не связаны цепочкой друзей");
+        }
+
+        return Arrays.stream(result.path())
+                .mapToObj(id -> userStorage.findById(id).orElseThrow(() -> NotFoundException.user(id)))
+                .toList();
+    }
+
+    private void checkUserExists(Long id) {
+        if (userStorage.findById(id).isEmpty()) {
+            throw NotFoundException.user(id);
+        }
+    }
+
+    /**
+     * @param exact нужен граф текущей версии; иначе подходит снимок не старше maxStaleness
+     */
+    private FriendGraph graph(boolean exact) {
+        GraphSnapshot current = snapshot;
+
+        if (current != null && isUsable(current, exact)) {
+            return current.graph();
+        }
+        if (current != null && !exact) {
+            if (!rebuildLock.tryLock()) {
+                return current.graph();
+            }
+        } else {
+            rebuildLock.lock();
+        }
+
+        try {
+            current = snapshot;
+            if (current == null || !isUsable(current, exact)) {
+                current = rebuild();
+                snapshot = current;
+            }
+            return current.graph();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private boolean isUsable(GraphSnapshot current, boolean exact) {
+        return current.version() == userCache.globalVersion()
+                || !exact && Duration.between(current.builtAt(), clock.instant()).compareTo(maxStaleness) <= 0;
+    }
+
+    private GraphSnapshot rebuild() {
+        long start = System.nanoTime();
+        Instant builtAt = clock.instant();
+        long version = userCache.globalVersion();
+        long[] ids = userStorage.findAll().stream().mapToLong(User::getId).toArray();
+        FriendGraph built = FriendGraph.build(ids, userStorage::getFriendIds);
+
+        log.debug("Граф дружбы перестроен за {} мс: {} пользователей",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), ids.length);
+        return new GraphSnapshot(built, version, builtAt);
+    }
+
+    private record GraphSnapshot(FriendGraph graph, long version, Instant builtAt) {
+    }
+}
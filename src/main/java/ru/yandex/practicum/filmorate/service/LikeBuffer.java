@@ -0,0 +1,151 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.cache.JsonCache;
+import ru.yandex.practicum.filmorate.cache.JsonFragmentCache;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Буфер лайков: в режиме объединения копит лайки по фильму и записывает их в хранилище пачкой,
+ * когда набирается {@code batch-size} операций или по расписанию раз в {@code flush-interval-ms}.
+ * Чтения буфер не сбрасывают, поэтому лайк становится виден не позже чем через этот интервал.
+ * После сброса запись фильма удаляется из буфера, так что он держит только фильмы с ожидающими лайками.
+ */
+@Slf4j
+@Component
+public class LikeBuffer {
+
+    private final FilmStorage filmStorage;
+    private final JsonFragmentCache filmCache;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Map<Long, PendingLikes> pending = new ConcurrentHashMap<>();
+
+    public LikeBuffer(FilmStorage filmStorage,
+                      JsonCache jsonCache,
+                      @Value("${filmorate.likes.coalescing.enabled:false}") boolean enabled,
+                      @Value("${filmorate.likes.coalescing.batch-size:256}") int batchSize) {
+        this.filmStorage = filmStorage;
+        this.filmCache = jsonCache.films();
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    public void addLike(Long filmId, Long userId) {
+        record(filmId, userId, true);
+    }
+
+    public void removeLike(Long filmId, Long userId) {
+        record(filmId, userId, false);
+    }
+
+    public void flush(Long filmId) {
+        PendingLikes likes = pending.get(filmId);
+
+        if (likes != null) {
+            likes.drain(filmId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.likes.coalescing.flush-interval-ms:200}")
+    public void flushAll() {
+        pending.forEach((filmId, likes) -> likes.drain(filmId));
+    }
+
+    int pendingFilms() {
+        return pending.size();
+    }
+
+    private void record(Long filmId, Long userId, boolean liked) {
+        if (!enabled) {
+            if (liked) {
+                filmStorage.addLike(filmId, userId);
+            } else {
+                filmStorage.removeLike(filmId, userId);
+            }
+            filmCache.invalidate(filmId);
+            return;
+        }
+
+        while (true) {
+            PendingLikes likes = pending.computeIfAbsent(filmId, id -> new PendingLikes());
+            long operations = likes.record(userId, liked);
+
+            if (operations < 0) {
+                continue;
+            }
+            if (operations >= batchSize) {
+                likes.drain(filmId);
+            }
+            return;
+        }
+    }
+
+    /**
+     * Лайки одного фильма. Сброс под блокировкой записи пишет их в хранилище и только потом убирает
+     * запись из буфера: лайк, который успел взять её из карты, дождётся сброса, увидит признак
+     * {@code retired} и заведёт новую, так что пачки одного фильма пишутся по порядку.
+     */
+    private final class PendingLikes {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final LongAdder operations = new LongAdder();
+        private final Map<Long, Boolean> deltas = new ConcurrentHashMap<>();
+        private boolean retired;
+
+        /**
+         * @return число накопленных операций или -1, если запись уже выведена из буфера
+         */
+        long record(Long userId, boolean liked) {
+            lock.readLock().lock();
+            try {
+                if (retired) {
+                    return -1;
+                }
+                deltas.put(userId, liked);
+                operations.increment();
+                return operations.sum();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void drain(Long filmId) {
+            lock.writeLock().lock();
+            try {
+                if (retired) {
+                    return;
+                }
+                retired = true;
+
+                if (!deltas.isEmpty()) {
+                    write(filmId);
+                }
+            } finally {
+                pending.remove(filmId, this);
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void write(Long filmId) {
+            List<Long> added = new ArrayList<>();
+            List<Long> removed = new ArrayList<>();
+            deltas.forEach((userId, liked) -> (liked ? added : removed).add(userId));
+
+            filmStorage.updateLikes(filmId, added, removed);
+            filmCache.invalidate(filmId);
+            log.debug("Сброшен буфер лайков фильма с id={}: добавлено {}, удалено {}",
+                    filmId, added.size(), removed.size());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import ru.yandex.practicum.filmorate.dto.FilmSummary;
+import ru.yandex.practicum.filmorate.dto.PopularityUpdate;
+import ru.yandex.practicum.filmorate.dto.RankChange;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Общий издатель изменений топа популярных фильмов. Топ пересчитывается одним потоком
+ * не чаще раза за интервал и только если фильмы или лайки менялись; все подписчики получают одно и то же событие.
+ */
+@Slf4j
+@Component
+public class PopularityFeed {
+
+    private final FilmService filmService;
+    private final int size;
+    private final Sinks.Many<PopularityUpdate> sink = Sinks.many().replay().latest();
+    private final Scheduler scheduler = Schedulers.newSingle("popularity-feed", true);
+    private final Disposable refreshTask;
+
+    private String lastTag;
+    private List<FilmSummary> ranking = List.of();
+    private long sequence;
+
+    public PopularityFeed(FilmService filmService,
+                          @Value("${filmorate.popular.feed.size:10}") int size,
+                          @Value("${filmorate.popular.feed.interval-ms:500}") long intervalMs) {
+        this.filmService = filmService;
+        this.size = size;
+        this.refreshTask = scheduler.schedulePeriodically(this::refresh, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public Flux<PopularityUpdate> updates() {
+        return sink.asFlux();
+    }
+
+    void refresh() {
+        if (sink.currentSubscriberCount() == 0) {
+            return;
+        }
+
+        try {
+            String tag = filmService.getFilmsTag("popular-feed");
+
+            if (tag.equals(lastTag)) {
+                return;
+            }
+            lastTag = tag;
+
+            List<FilmSummary> current = filmService.getPopular(size).stream().map(FilmSummary::from).toList();
+            List<RankChange> changes = diff(ranking, current);
+            ranking = current;
+
+            if (!changes.isEmpty()) {
+                sink.tryEmitNext(new PopularityUpdate(++sequence, current, changes));
+                log.debug("Топ популярных фильмов изменился: {} изменений", changes.size());
+            }
+        } catch (RuntimeException e) {
+            log.error("Не удалось пересчитать топ популярных фильмов", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshTask.dispose();
+        scheduler.dispose();
+        sink.tryEmitComplete();
+    }
+
+    static List<RankChange> diff(List<FilmSummary> previous, List<FilmSummary> current) {
+        Map<Long, Integer> previousPositions = new HashMap<>();
+        Map<Long, Integer> previousLikes = new HashMap<>();
+
+        for (int i = 0; i < previous.size(); i++) {
+            previousPositions.put(previous.get(i).id(), i + 1);
+            previousLikes.put(previous.get(i).id(), previous.get(i).likesCount());
+        }
+
+        List<RankChange> changes = new ArrayList<>();
+
+        for (int i = 0; i < current.size(); i++) {
+            FilmSummary film = current.get(i);
+            Integer position = previousPositions.remove(film.id());
+
+            if (!Objects.equals(position, i + 1) || !Objects.equals(previousLikes.get(film.id()), film.likesCount())) {
+                changes.add(new RankChange(film.id(), i + 1, film.likesCount()));
+            }
+        }
+
+        previousPositions.keySet().forEach(id -> changes.add(new RankChange(id, null, previousLikes.get(id))));
+
+        return changes;
+    }
+}
@@ -1,15 +1,24 @@
 package ru.yandex.practicum.filmorate.service;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.JsonCache;
+import ru.yandex.practicum.filmorate.cache.JsonFragmentCache;
+import ru.yandex.practicum.filmorate.cache.SingleFlight;
+import ru.yandex.practicum.filmorate.cache.SingleFlights;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.profiling.ServiceOperationEvent;
+import ru.yandex.practicum.filmorate.profiling.StorageOperationEvent;
+import ru.yandex.practicum.filmorate.replication.Replicator;
+import ru.yandex.practicum.filmorate.storage.user.UserIndex;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.validation.DayClock;
+import ru.yandex.practicum.filmorate.validation.UserValidator;
 
-import java.time.LocalDate;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Set;
 
 @Slf4j
@@ -17,64 +26,118 @@ import java.util.Set;
 public class UserService {
 
     private final UserStorage userStorage;
-
-    public UserService(UserStorage userStorage) {
+    private final JsonFragmentCache userCache;
+    private final Replicator replicator;
+    private final UserIndex userIndex;
+    private final SingleFlight<Collection<User>> friendsFlight;
+    private final UserValidator userValidator = new UserValidator(DayClock.system());
+
+    public UserService(UserStorage userStorage, JsonCache jsonCache, Replicator replicator, UserIndex userIndex,
+                       SingleFlights singleFlights) {
         this.userStorage = userStorage;
+        this.userCache = jsonCache.users();
+        this.replicator = replicator;
+        this.userIndex = userIndex;
+        this.friendsFlight = singleFlights.friends();
+    }
+
+    @PostConstruct
+    public void rebuildIndex() {
+        Collection<User> users = userStorage.findAll();
+        userIndex.rebuild(users);
+        log.info("Индекс email и логинов по {} пользователям перестроен", users.size());
     }
 
     public Collection<User> findAll() {
         log.info("Запрос вывода всех пользователей");
+        userCache.beforeRead();
         return userStorage.findAll();
     }
 
     public User create(User user) {
         log.info("Запрос на создание пользователя");
-        validateUser(user);
+        userValidator.validate(user);
         fillNameIfBlank(user);
-        return userStorage.create(user);
+        UserIndex.Reservation reservation = userIndex.reserve(user, null);
+        User created;
+        try {
+            created = store(user);
+        } catch (RuntimeException e) {
+            reservation.cancel();
+            throw e;
+        }
+        reservation.commit(created);
+        userCache.invalidate(created.getId());
+        return created;
     }
 
     public User update(User user) {
         log.info("Запрос на обновление пользователя с id={}", user.getId());
-        getUserOrThrow(user.getId());
-        validateUser(user);
+        User previous = getUserOrThrow(user.getId());
+        userValidator.validate(user);
         fillNameIfBlank(user);
-        return userStorage.update(user);
+        UserIndex.Reservation reservation = userIndex.reserve(user, previous);
+        User updated;
+        try {
+            updated = replicator.upsertUser(user.getId(), () -> userStorage.update(user));
+        } catch (RuntimeException e) {
+            reservation.cancel();
+            throw e;
+        }
+        reservation.commit(updated);
+        userCache.invalidate(updated.getId());
+        return updated;
     }
 
     public User findById(Long id) {
+        userCache.beforeRead();
         return getUserOrThrow(id);
     }
 
+    public User findByEmail(String email) {
+        userCache.beforeRead();
+        return userIndex.findByEmail(email)
+                .flatMap(userStorage::findById)
+                .orElseThrow(() -> new NotFoundException("Пользователь с email=" + email + " не найден"));
+    }
+
+    public User findByLogin(String login) {
+        userCache.beforeRead();
+        return userIndex.findByLogin(login)
+                .flatMap(userStorage::findById)
+                .orElseThrow(() -> new NotFoundException("Пользователь с логином " + login + " не найден"));
+    }
+
     public void addFriend(Long userId, Long friendId) {
         log.info("Добавление в друзья: id={}, id={}", userId, friendId);
         checkNotEqualsId(userId, friendId, "Нельзя добавить самого себя в друзья");
 
-        User user = getUserOrThrow(userId);
-
-        User friend = getUserOrThrow(friendId);
-
-        user.getFriends().add(friendId);
-        friend.getFriends().add(userId);
+        ServiceOperationEvent event = ServiceOperationEvent.start();
+        getUserOrThrow(userId);
+        getUserOrThrow(friendId);
 
-
-        userStorage.update(user);
-        userStorage.update(friend);
+        StorageOperationEvent storageEvent = StorageOperationEvent.start();
+        replicator.addFriend(userId, friendId, () -> userStorage.addFriend(userId, friendId));
+        storageEvent.finish(userStorage, "addFriend", userId, 0);
+        userCache.invalidate(userId);
+        userCache.invalidate(friendId);
+        event.finish("addFriend", userId, friendId, 0);
         log.info("Пользователи id={} и id={} теперь друзья", userId, friendId);
     }
 
     public void removeFriend(Long userId, Long friendId) {
         log.info("Удаление из друзей: id={}, id={}", userId, friendId);
         checkNotEqualsId(userId, friendId, "Нельзя удалить самого себя из своих друзей");
-        User user = getUserOrThrow(userId);
-        User friend = getUserOrThrow(friendId);
-
-
-        user.getFriends().remove(friendId);
-        friend.getFriends().remove(userId);
+        ServiceOperationEvent event = ServiceOperationEvent.start();
+        getUserOrThrow(userId);
+        getUserOrThrow(friendId);
 
-        userStorage.update(user);
-        userStorage.update(friend);
+        StorageOperationEvent storageEvent = StorageOperationEvent.start();
+        replicator.removeFriend(userId, friendId, () -> userStorage.removeFriend(userId, friendId));
+        storageEvent.finish(userStorage, "removeFriend", userId, 0);
+        userCache.invalidate(userId);
+        userCache.invalidate(friendId);
+        event.finish("removeFriend", userId, friendId, 0);
 
         log.info("Пользователи id={} и id={} больше не друзья", userId, friendId);
     }
@@ -82,13 +145,17 @@ public class UserService {
     public Collection<User> getCommonFriends(Long userId, Long otherId) {
         log.info("Запрос общих друзей: id={}, id={}", userId, otherId);
         checkNotEqualsId(userId, otherId, "Id не должны быть одинаковыми");
-        User user = getUserOrThrow(userId);
-        User otherUser = getUserOrThrow(otherId);
+        ServiceOperationEvent event = ServiceOperationEvent.start();
+        checkUserExists(userId);
+        checkUserExists(otherId);
+        userCache.beforeRead();
 
-        Set<Long> commonFriendsIds = new HashSet<>(user.getFriends());
-        commonFriendsIds.retainAll(otherUser.getFriends());
+        StorageOperationEvent storageEvent = StorageOperationEvent.start();
+        Set<Long> commonFriendsIds = userStorage.getCommonFriendIds(userId, otherId);
+        storageEvent.finish(userStorage, "getCommonFriendIds", userId, commonFriendsIds.size());
 
         Collection<User> commonFriends = commonFriendsIds.stream().map(this::getUserOrThrow).toList();
+        event.finish("getCommonFriends", userId, otherId, commonFriends.size());
 
         log.info("Общие друзья для id={} и id={} успешно получены", userId, otherId);
         return commonFriends;
@@ -97,32 +164,39 @@ public class UserService {
     public Collection<User> getFriends(Long userId) {
         log.info("Запрос списка друзей: id={}", userId);
 
-        User user = getUserOrThrow(userId);
-        Collection<User> friends = user.getFriends().stream().map(this::getUserOrThrow).toList();
+        ServiceOperationEvent event = ServiceOperationEvent.start();
+        userCache.beforeRead();
+        Collection<User> friends = friendsFlight.execute(userId + ":" + userCache.globalVersion(), () -> {
+            checkUserExists(userId);
+            StorageOperationEvent storageEvent = StorageOperationEvent.start();
+            Set<Long> friendIds = userStorage.getFriendIds(userId);
+            storageEvent.finish(userStorage, "getFriendIds", userId, friendIds.size());
+            return friendIds.stream().map(this::getUserOrThrow).toList();
+        });
+        event.finish("getFriends", userId, 0, friends.size());
 
         log.info("Список друзей для id={} успешно получен", userId);
         return friends;
     }
 
 
-    private void validateUser(User user) {
-        String email = user.getEmail();
-        if (email == null || email.isBlank()) {
-            throw new ValidationException("Электронная почта не может быть пустой");
-        }
-        if (!email.contains("@")) {
-            throw new ValidationException("Электронная почта должна содержать символ @");
+    public String getUserTag(Long userId) {
+        if (!userCache.isKnown(userId)) {
+            getUserOrThrow(userId);
         }
+        return userCache.entityTag(userId);
+    }
 
-        String login = user.getLogin();
-        if (login == null || login.isBlank() || login.contains(" ")) {
-            throw new ValidationException("Логин не может быть пустым и содержать пробелы");
-        }
+    public String getUsersTag(String discriminator) {
+        return userCache.collectionTag(discriminator);
+    }
 
-        LocalDate birthday = user.getBirthday();
-        if (birthday == null || birthday.isAfter(LocalDate.now())) {
-            throw new ValidationException("Дата рождения не может быть в будущем");
+    private User store(User user) {
+        if (!replicator.isEnabled()) {
+            return userStorage.create(user);
         }
+        user.setId(replicator.nextUserId());
+        return replicator.upsertUser(user.getId(), () -> userStorage.update(user));
     }
 
     private void fillNameIfBlank(User user) {
@@ -140,7 +214,16 @@ public class UserService {
         }
     }
 
+    private void checkUserExists(Long userId) {
+        if (userStorage.findById(userId).isEmpty()) {
+            throw NotFoundException.user(userId);
+        }
+    }
+
     private User getUserOrThrow(Long userId) {
-        return userStorage.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
+        if (userId == null) {
+            throw NotFoundException.user(userId);
+        }
+        return userStorage.findById(userId).orElseThrow(() -> NotFoundException.user(userId));
     }
 }
\ No newline at end of file
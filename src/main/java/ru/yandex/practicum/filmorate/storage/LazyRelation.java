@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.storage.offheap.CompressedIds;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Набор связанных id, который хранилище отдаёт вместо готового множества. При чтении сущности
+ * снимаются только размер набора и загрузчик его сжатого блока ({@link CompressedIds}); сам блок
+ * читается при первой проверке членства, а в {@code Set<Long>} распаковывается только при обходе
+ * или изменении набора. Загрузчик отдаёт блок, на который сущность ссылалась в момент чтения,
+ * поэтому набор согласован с ним, а не с текущим состоянием хранилища.
+ */
+public final class LazyRelation extends AbstractSet<Long> {
+
+    private final int size;
+    private Supplier<byte[]> loader;
+    private byte[] encoded;
+    private Set<Long> decoded;
+
+    public LazyRelation(int size, Supplier<byte[]> loader) {
+        this.size = size;
+        this.loader = loader;
+    }
+
+    public synchronized boolean isLoaded() {
+        return decoded != null;
+    }
+
+    @Override
+    public synchronized int size() {
+        return decoded == null ? size : decoded.size();
+    }
+
+    @Override
+    public synchronized boolean contains(Object o) {
+        if (decoded != null) {
+            return decoded.contains(o);
+        }
+        return o instanceof Long id && size > 0 && CompressedIds.contains(encoded(), id);
+    }
+
+    @Override
+    public synchronized boolean add(Long id) {
+        return decoded().add(id);
+    }
+
+    @Override
+    public synchronized boolean remove(Object o) {
+        return decoded().remove(o);
+    }
+
+    @Override
+    public synchronized Iterator<Long> iterator() {
+        return decoded().iterator();
+    }
+
+    private byte[] encoded() {
+        if (encoded == null) {
+            encoded = loader.get();
+            loader = null;
+        }
+        return encoded;
+    }
+
+    private Set<Long> decoded() {
+        if (decoded == null) {
+            decoded = CompressedIds.decode(encoded());
+            encoded = null;
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,157 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Хранилище сущностей, разбитое на шарды по хэшу id. У каждого шарда своя карта и своя блокировка;
+ * операции над двумя сущностями берут блокировки шардов в порядке возрастания номера.
+ * <p>
+ * Наружу отдаются только снимки, снятые под блокировкой шарда функцией {@code snapshot}: вложенные
+ * множества меняются под блокировкой, а читаются и сериализуются уже после её освобождения.
+ * Сохраняемое значение тоже копируется, чтобы вызывающий код не держал ссылку на живой объект.
+ * Для {@code null} id сущности нет.
+ */
+public class ShardedMap<T> {
+
+    private final Shard<T>[] shards;
+    private final UnaryOperator<T> snapshot;
+
+    @SuppressWarnings("unchecked")
+    public ShardedMap(int shardCount, UnaryOperator<T> snapshot) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Число шардов должно быть положительным");
+        }
+        this.snapshot = snapshot;
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard<>();
+        }
+    }
+
+    public T get(Long id) {
+        if (id == null) {
+            return null;
+        }
+
+        Shard<T> shard = shardFor(id);
+        shard.lock.readLock().lock();
+        try {
+            T value = shard.entities.get(id);
+            return value == null ? null : snapshot.apply(value);
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    public void put(Long id, T value) {
+        Shard<T> shard = shardFor(id);
+        shard.lock.writeLock().lock();
+        try {
+            shard.entities.put(id, snapshot.apply(value));
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Действие получает живой объект; результат не копируется, поэтому он не должен ссылаться на
+     * изменяемое состояние сущности.
+     */
+    public <R> R compute(Long id, Function<T, R> action) {
+        Shard<T> shard = shardFor(id);
+        shard.lock.writeLock().lock();
+        try {
+            return action.apply(shard.entities.get(id));
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    public T update(Long id, UnaryOperator<T> remapping) {
+        Shard<T> shard = shardFor(id);
+        shard.lock.writeLock().lock();
+        try {
+            T value = remapping.apply(shard.entities.get(id));
+            shard.entities.put(id, value);
+            return snapshot.apply(value);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    public void computePair(Long firstId, Long secondId, BiConsumer<T, T> action) {
+        int first = indexOf(firstId);
+        int second = indexOf(secondId);
+        ReentrantReadWriteLock.WriteLock outer = shards[Math.min(first, second)].lock.writeLock();
+        ReentrantReadWriteLock.WriteLock inner = shards[Math.max(first, second)].lock.writeLock();
+
+        outer.lock();
+        try {
+            inner.lock();
+            try {
+                action.accept(shards[first].entities.get(firstId), shards[second].entities.get(secondId));
+            } finally {
+                inner.unlock();
+            }
+        } finally {
+            outer.unlock();
+        }
+    }
+
+    public List<T> values() {
+        List<T> values = new ArrayList<>();
+        for (Shard<T> shard : shards) {
+            shard.lock.readLock().lock();
+            try {
+                shard.entities.values().forEach(value -> values.add(snapshot.apply(value)));
+            } finally {
+                shard.lock.readLock().unlock();
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Запрос выполняется под блокировкой чтения шарда и получает живые объекты: всё, что он
+     * возвращает из них, должно пройти через {@link #snapshot(Object)}.
+     */
+    public <R> List<R> scatter(Function<Collection<T>, R> query) {
+        return Arrays.stream(shards)
+                .parallel()
+                .map(shard -> {
+                    shard.lock.readLock().lock();
+                    try {
+                        return query.apply(shard.entities.values());
+                    } finally {
+                        shard.lock.readLock().unlock();
+                    }
+                })
+                .toList();
+    }
+
+    public T snapshot(T value) {
+        return snapshot.apply(value);
+    }
+
+    private Shard<T> shardFor(Long id) {
+        return shards[indexOf(id)];
+    }
+
+    private int indexOf(Long id) {
+        return Math.floorMod(Long.hashCode(id) * 0x9E3779B9, shards.length);
+    }
+
+    private static final class Shard<T> {
+        private final Map<Long, T> entities = new HashMap<>();
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    }
+}
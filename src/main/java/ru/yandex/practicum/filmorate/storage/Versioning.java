@@ -0,0 +1,53 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+/**
+ * Оптимистичное версионирование сущностей. Обновление применяется, только если клиент
+ * не передал версию или передал текущую; наборы лайков и друзей берутся из хранилища,
+ * а не из тела запроса — ими управляют отдельные операции.
+ */
+public final class Versioning {
+
+    public static final long INITIAL_VERSION = 1L;
+
+    private Versioning() {
+    }
+
+    public static void checkVersion(String entity, Long id, Long expected, long actual) {
+        if (expected != null && expected != actual) {
+            throw new ConflictException(entity + " с id=" + id + " уже изменён: версия " + expected
+                    + " устарела, текущая версия " + actual);
+        }
+    }
+
+    public static Film merge(Film current, Film incoming) {
+        checkVersion("Фильм", current.getId(), incoming.getVersion(), current.getVersion());
+
+        Film merged = new Film();
+        merged.setId(current.getId());
+        merged.setName(incoming.getName());
+        merged.setDescription(incoming.getDescription());
+        merged.setReleaseDate(incoming.getReleaseDate());
+        merged.setDuration(incoming.getDuration());
+        merged.setLikes(current.getLikes());
+        merged.setVersion(current.getVersion() + 1);
+        return merged;
+    }
+
+    public static User merge(User current, User incoming) {
+        checkVersion("Пользователь", current.getId(), incoming.getVersion(), current.getVersion());
+
+        User merged = new User();
+        merged.setId(current.getId());
+        merged.setEmail(incoming.getEmail());
+        merged.setLogin(incoming.getLogin());
+        merged.setName(incoming.getName());
+        merged.setBirthday(incoming.getBirthday());
+        merged.setFriends(current.getFriends());
+        merged.setVersion(current.getVersion() + 1);
+        return merged;
+    }
+}
@@ -4,7 +4,9 @@ package ru.yandex.practicum.filmorate.storage.film;
 import ru.yandex.practicum.filmorate.model.Film;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface FilmStorage {
 
@@ -16,4 +18,29 @@ public interface FilmStorage {
 
     Optional<Film> findById(Long id);
 
+    void updateLikes(Long filmId, Collection<Long> added, Collection<Long> removed);
+
+    default void addLike(Long filmId, Long userId) {
+        updateLikes(filmId, List.of(userId), List.of());
+    }
+
+    default void removeLike(Long filmId, Long userId) {
+        updateLikes(filmId, List.of(), List.of(userId));
+    }
+
+    default Set<Long> getLikes(Long filmId) {
+        return findById(filmId).map(Film::getLikes).orElse(Set.of());
+    }
+
+    default int getLikesCount(Long filmId) {
+        return findById(filmId).map(Film::getLikesCount).orElse(0);
+    }
+
+    default Collection<Film> findPopular(int count) {
+        return findAll().stream()
+                .sorted((f1, f2) -> Integer.compare(f2.getLikesCount(), f1.getLikesCount()))
+                .limit(count)
+                .toList();
+    }
+
 }
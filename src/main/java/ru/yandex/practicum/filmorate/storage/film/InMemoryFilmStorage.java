@@ -1,19 +1,25 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.Versioning;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Component
+@ConditionalOnProperty(name = "filmorate.storage.type", havingValue = "in-memory", matchIfMissing = true)
 public class InMemoryFilmStorage implements FilmStorage {
 
-    private final Map<Long, Film> films = new HashMap<>();
+    private final Map<Long, Film> films = new ConcurrentHashMap<>();
+    private final AtomicLong lastId = new AtomicLong();
 
     @Override
     public Collection<Film> findAll() {
@@ -26,9 +32,9 @@ public class InMemoryFilmStorage implements FilmStorage {
     @Override
     public Film create(Film film) {
 
-        film.setId(getNextId());
+        film.setId(lastId.incrementAndGet());
 
-        films.put(film.getId(), film);
+        films.put(film.getId(), initial(film));
 
         log.info("Создан фильм с id={}", film.getId());
 
@@ -38,11 +44,26 @@ public class InMemoryFilmStorage implements FilmStorage {
     @Override
     public Film update(Film film) {
 
-        films.put(film.getId(), film);
+        lastId.accumulateAndGet(film.getId(), Math::max);
 
-        log.info("Обновлён фильм с id={}", film.getId());
+        while (true) {
+            Film current = films.get(film.getId());
 
-        return film;
+            if (current == null) {
+                if (films.putIfAbsent(film.getId(), initial(film)) == null) {
+                    log.info("Обновлён фильм с id={}", film.getId());
+                    return film;
+                }
+                continue;
+            }
+
+            Film merged = Versioning.merge(current, film);
+
+            if (films.replace(film.getId(), current, merged)) {
+                log.info("Обновлён фильм с id={}, версия {}", film.getId(), merged.getVersion());
+                return merged;
+            }
+        }
     }
 
     @Override
@@ -53,11 +74,28 @@ public class InMemoryFilmStorage implements FilmStorage {
         return Optional.ofNullable(films.get(id));
     }
 
-    private long getNextId() {
+    @Override
+    public void updateLikes(Long filmId, Collection<Long> added, Collection<Long> removed) {
+
+        Film film = films.get(filmId);
 
-        return films.keySet().stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0) + 1;
+        if (film == null) {
+            return;
+        }
+
+        film.getLikes().addAll(added);
+        film.getLikes().removeAll(removed);
+
+        log.info("Обновлены лайки фильма с id={}: добавлено {}, удалено {}", filmId, added.size(), removed.size());
+    }
+
+    private static Film initial(Film film) {
+        Set<Long> likes = ConcurrentHashMap.newKeySet();
+        if (film.getLikes() != null) {
+            likes.addAll(film.getLikes());
+        }
+        film.setLikes(likes);
+        film.setVersion(Versioning.INITIAL_VERSION);
+        return film;
     }
-}
\ No newline at end of file
+}
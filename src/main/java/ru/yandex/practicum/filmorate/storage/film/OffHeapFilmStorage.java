@@ -0,0 +1,286 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.LazyRelation;
+import ru.yandex.practicum.filmorate.storage.Versioning;
+import ru.yandex.practicum.filmorate.storage.offheap.CompressedIds;
+import ru.yandex.practicum.filmorate.storage.offheap.OffHeapArena;
+import ru.yandex.practicum.filmorate.storage.offheap.OffHeapRecords;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static ru.yandex.practicum.filmorate.storage.offheap.OffHeapCodec.*;
+
+/**
+ * Фильмы хранятся вне кучи: поля фиксированной длины — в {@link OffHeapRecords},
+ * строки и лайки — в {@link OffHeapArena}. Объект {@link Film} собирается только при чтении,
+ * а лайки читаются из арены и декодируются, только когда к ним действительно обращаются.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.type", havingValue = "off-heap")
+public class OffHeapFilmStorage implements FilmStorage {
+
+    private static final int DURATION = 0;
+    private static final int RELEASE_DATE = 4;
+    private static final int NAME = 12;
+    private static final int DESCRIPTION = 20;
+    private static final int LIKES = 28;
+    private static final int LIKES_COUNT = 36;
+    private static final int VERSION = 40;
+    private static final int FIELDS_SIZE = 48;
+    private static final int[] ARENA_FIELDS = {NAME, DESCRIPTION, LIKES};
+
+    private final int chunkSize;
+    private final OffHeapRecords records = new OffHeapRecords(FIELDS_SIZE);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private OffHeapArena arena;
+
+    public OffHeapFilmStorage(@Value("${filmorate.storage.off-heap.chunk-size:4194304}") int chunkSize) {
+        this.chunkSize = chunkSize;
+        this.arena = new OffHeapArena(chunkSize);
+    }
+
+    @Override
+    public Collection<Film> findAll() {
+
+        log.info("Запрос вывода всех фильмов");
+
+        lock.readLock().lock();
+        try {
+            List<Film> films = new ArrayList<>((int) records.count());
+            for (long id = 1; id <= records.maxId(); id++) {
+                if (records.contains(id)) {
+                    films.add(read(id));
+                }
+            }
+            return films;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Film create(Film film) {
+
+        lock.writeLock().lock();
+        try {
+            long id = records.maxId() + 1;
+            film.setId(id);
+            film.setVersion(Versioning.INITIAL_VERSION);
+            records.add(id);
+            write(id, film);
+            writeLikes(id, film.getLikes());
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Создан фильм с id={}", film.getId());
+
+        return film;
+    }
+
+    @Override
+    public Film update(Film film) {
+
+        if (film.getId() == null) {
+            throw NotFoundException.film(null);
+        }
+        long id = film.getId();
+        Film updated;
+
+        lock.writeLock().lock();
+        try {
+            if (records.contains(id)) {
+                long version = records.getLong(id, VERSION);
+                Versioning.checkVersion("Фильм", id, film.getVersion(), version);
+                arena.release(records.getLong(id, NAME));
+                arena.release(records.getLong(id, DESCRIPTION));
+                film.setVersion(version + 1);
+                write(id, film);
+            } else {
+                film.setVersion(Versioning.INITIAL_VERSION);
+                records.add(id);
+                write(id, film);
+                writeLikes(id, film.getLikes());
+            }
+            compactIfNeeded();
+            updated = read(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Обновлён фильм с id={}, версия {}", id, updated.getVersion());
+
+        return updated;
+    }
+
+    @Override
+    public Optional<Film> findById(Long id) {
+
+        log.info("Поиск фильма с id={}", id);
+
+        lock.readLock().lock();
+        try {
+            return exists(id) ? Optional.of(read(id)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void updateLikes(Long filmId, Collection<Long> added, Collection<Long> removed) {
+
+        lock.writeLock().lock();
+        try {
+            if (!exists(filmId)) {
+                return;
+            }
+
+            long likesRef = records.getLong(filmId, LIKES);
+            byte[] current = arena.read(likesRef);
+            byte[] updated = CompressedIds.update(current, added, removed);
+            if (updated == current) {
+                return;
+            }
+
+            arena.release(likesRef);
+            records.putLong(filmId, LIKES, arena.write(updated));
+            records.putInt(filmId, LIKES_COUNT, CompressedIds.size(updated));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Обновлены лайки фильма с id={}: добавлено {}, удалено {}", filmId, added.size(), removed.size());
+    }
+
+    @Override
+    public Set<Long> getLikes(Long filmId) {
+
+        lock.readLock().lock();
+        try {
+            return exists(filmId) ? decodeIds(arena.read(records.getLong(filmId, LIKES))) : Set.of();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getLikesCount(Long filmId) {
+
+        lock.readLock().lock();
+        try {
+            return exists(filmId) ? records.getInt(filmId, LIKES_COUNT) : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Collection<Film> findPopular(int count) {
+
+        lock.readLock().lock();
+        try {
+            Comparator<Long> byPopularity = Comparator
+                    .comparingInt((Long id) -> records.getInt(id, LIKES_COUNT)).reversed()
+                    .thenComparing(Comparator.naturalOrder());
+            PriorityQueue<Long> top = new PriorityQueue<>(byPopularity.reversed());
+
+            for (long id = 1; id <= records.maxId(); id++) {
+                if (records.contains(id)) {
+                    top.offer(id);
+                    if (top.size() > count) {
+                        top.poll();
+                    }
+                }
+            }
+
+            return top.stream().sorted(byPopularity).map(this::read).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean exists(Long id) {
+        return id != null && records.contains(id);
+    }
+
+    private Film read(long id) {
+        Film film = new Film();
+        film.setId(id);
+        film.setDuration(records.getInt(id, DURATION));
+        film.setReleaseDate(decodeDate(records.getLong(id, RELEASE_DATE)));
+        film.setName(decodeString(arena.read(records.getLong(id, NAME))));
+        film.setDescription(decodeString(arena.read(records.getLong(id, DESCRIPTION))));
+        film.setLikes(relation(records.getInt(id, LIKES_COUNT), records.getLong(id, LIKES)));
+        film.setVersion(records.getLong(id, VERSION));
+        return film;
+    }
+
+    /**
+     * Блоки арены только дописываются, а уплотнение переносит живые блоки в новую арену, не трогая
+     * старую. Поэтому пара «арена на момент чтения + ссылка» остаётся валидной и после изменения
+     * или уплотнения, и байты набора можно прочитать позже, когда к нему обратятся.
+     */
+    private LazyRelation relation(int size, long ref) {
+        OffHeapArena source = arena;
+        return new LazyRelation(size, () -> readBlock(source, ref));
+    }
+
+    private byte[] readBlock(OffHeapArena source, long ref) {
+        lock.readLock().lock();
+        try {
+            return source.read(ref);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(long id, Film film) {
+        records.putInt(id, DURATION, film.getDuration());
+        records.putLong(id, RELEASE_DATE, encodeDate(film.getReleaseDate()));
+        records.putLong(id, NAME, arena.write(encodeString(film.getName())));
+        records.putLong(id, DESCRIPTION, arena.write(encodeString(film.getDescription())));
+        records.putLong(id, VERSION, film.getVersion());
+    }
+
+    private void writeLikes(long id, Set<Long> likes) {
+        Set<Long> ids = likes == null ? Set.of() : likes;
+
+        records.putLong(id, LIKES, arena.write(encodeIds(ids)));
+        records.putInt(id, LIKES_COUNT, ids.size());
+    }
+
+    private void compactIfNeeded() {
+        if (!arena.needsCompaction()) {
+            return;
+        }
+
+        OffHeapArena compacted = new OffHeapArena(chunkSize);
+
+        for (long id = 1; id <= records.maxId(); id++) {
+            if (records.contains(id)) {
+                for (int field : ARENA_FIELDS) {
+                    records.putLong(id, field, compacted.write(arena.read(records.getLong(id, field))));
+                }
+            }
+        }
+
+        log.info("Уплотнена арена фильмов: {} байт мусора освобождено", arena.garbageBytes());
+        arena = compacted;
+    }
+}
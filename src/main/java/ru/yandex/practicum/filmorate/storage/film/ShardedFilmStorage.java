@@ -0,0 +1,137 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.ShardedMap;
+import ru.yandex.practicum.filmorate.storage.Versioning;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Лайки хранятся неизменяемыми множествами и при изменении заменяются целиком. Снимок сущности
+ * поэтому разделяет множество с хранимой копией, а не копирует его при каждом чтении.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.type", havingValue = "sharded")
+public class ShardedFilmStorage implements FilmStorage {
+
+    private static final Comparator<Film> BY_POPULARITY = Comparator
+            .comparingInt(Film::getLikesCount).reversed()
+            .thenComparing(Film::getId);
+
+    private final ShardedMap<Film> films;
+    private final AtomicLong lastId = new AtomicLong();
+
+    public ShardedFilmStorage(@Value("${filmorate.storage.shards:0}") int shards) {
+        this.films = new ShardedMap<>(shards > 0 ? shards : Runtime.getRuntime().availableProcessors(),
+                ShardedFilmStorage::copyOf);
+    }
+
+    @Override
+    public Collection<Film> findAll() {
+
+        log.info("Запрос вывода всех фильмов");
+
+        return films.values();
+    }
+
+    @Override
+    public Film create(Film film) {
+
+        film.setId(lastId.incrementAndGet());
+        film.setVersion(Versioning.INITIAL_VERSION);
+
+        films.put(film.getId(), film);
+
+        log.info("Создан фильм с id={}", film.getId());
+
+        return film;
+    }
+
+    @Override
+    public Film update(Film film) {
+
+        lastId.accumulateAndGet(film.getId(), Math::max);
+        Film updated = films.update(film.getId(), current -> {
+            if (current == null) {
+                film.setVersion(Versioning.INITIAL_VERSION);
+                return copyOf(film);
+            }
+            return Versioning.merge(current, film);
+        });
+
+        log.info("Обновлён фильм с id={}, версия {}", film.getId(), updated.getVersion());
+
+        return updated;
+    }
+
+    @Override
+    public Optional<Film> findById(Long id) {
+
+        log.info("Поиск фильма с id={}", id);
+
+        return Optional.ofNullable(films.get(id));
+    }
+
+    @Override
+    public void updateLikes(Long filmId, Collection<Long> added, Collection<Long> removed) {
+
+        films.compute(filmId, film -> {
+            if (film != null) {
+                Set<Long> likes = new HashSet<>(film.getLikes());
+                likes.addAll(added);
+                likes.removeAll(removed);
+                film.setLikes(Set.copyOf(likes));
+            }
+            return null;
+        });
+
+        log.info("Обновлены лайки фильма с id={}: добавлено {}, удалено {}", filmId, added.size(), removed.size());
+    }
+
+    @Override
+    public Collection<Film> findPopular(int count) {
+
+        return films.scatter(shard -> topOf(shard, count)).stream()
+                .flatMap(List::stream)
+                .sorted(BY_POPULARITY)
+                .limit(count)
+                .toList();
+    }
+
+    private List<Film> topOf(Collection<Film> shard, int count) {
+        PriorityQueue<Film> top = new PriorityQueue<>(BY_POPULARITY.reversed());
+
+        for (Film film : shard) {
+            top.offer(film);
+            if (top.size() > count) {
+                top.poll();
+            }
+        }
+
+        return top.stream().map(films::snapshot).toList();
+    }
+
+    private static Film copyOf(Film film) {
+        Film copy = new Film();
+        copy.setId(film.getId());
+        copy.setName(film.getName());
+        copy.setDescription(film.getDescription());
+        copy.setReleaseDate(film.getReleaseDate());
+        copy.setDuration(film.getDuration());
+        copy.setLikes(Set.copyOf(film.getLikes()));
+        copy.setVersion(film.getVersion());
+        return copy;
+    }
+}
@@ -0,0 +1,335 @@
+package ru.yandex.practicum.filmorate.storage.offheap;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Сжатое отсортированное множество id: id разбиты на блоки по {@link #BLOCK_SIZE}, внутри блока
+ * хранятся разности соседних id в varint. Перед данными лежит индекс блоков фиксированной ширины
+ * (первый id и смещение блока), по которому проверка членства и пересечение перескакивают
+ * к нужному блоку бинарным поиском, не распаковывая остальные.
+ * <p>
+ * Формат: {@code varint count | blockCount × (long firstId, int offset) | varint-разности}.
+ */
+public final class CompressedIds {
+
+    public static final int BLOCK_SIZE = 64;
+
+    private static final int INDEX_ENTRY = Long.BYTES + Integer.BYTES;
+    private static final long[] EMPTY = new long[0];
+
+    private CompressedIds() {
+    }
+
+    public static byte[] encode(Collection<Long> ids) {
+        return encodeSorted(sortedDistinct(ids));
+    }
+
+    /**
+     * @param ids id по возрастанию без повторов
+     */
+    public static byte[] encodeSorted(long[] ids) {
+        int count = ids.length;
+        int blockCount = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        byte[] out = new byte[varintSize(count) + blockCount * INDEX_ENTRY + count * 10];
+
+        int pos = writeVarint(out, 0, count);
+        int indexStart = pos;
+        int dataStart = indexStart + blockCount * INDEX_ENTRY;
+        pos = dataStart;
+
+        for (int block = 0; block < blockCount; block++) {
+            int from = block * BLOCK_SIZE;
+            int to = Math.min(from + BLOCK_SIZE, count);
+            int entry = indexStart + block * INDEX_ENTRY;
+            putLong(out, entry, ids[from]);
+            putInt(out, entry + Long.BYTES, pos - dataStart);
+
+            for (int i = from + 1; i < to; i++) {
+                pos = writeVarint(out, pos, ids[i] - ids[i - 1]);
+            }
+        }
+
+        return Arrays.copyOf(out, pos);
+    }
+
+    public static Set<Long> decode(byte[] data) {
+        Set<Long> ids = new HashSet<>();
+
+        if (data == null) {
+            return ids;
+        }
+
+        Cursor cursor = new Cursor(data);
+        while (cursor.hasNext()) {
+            ids.add(cursor.next());
+        }
+
+        return ids;
+    }
+
+    public static int size(byte[] data) {
+        return data == null ? 0 : (int) readVarint(data, 0);
+    }
+
+    public static boolean contains(byte[] data, long id) {
+        if (data == null) {
+            return false;
+        }
+
+        Cursor cursor = new Cursor(data);
+        return cursor.hasNext() && cursor.seek(id) && cursor.value == id;
+    }
+
+    /**
+     * Пересечение двух сжатых множеств без распаковки: курсоры идут навстречу друг другу и
+     * перескакивают целые блоки, если следующий блок начинается не дальше искомого id.
+     */
+    public static long[] intersect(byte[] left, byte[] right) {
+        if (left == null || right == null) {
+            return EMPTY;
+        }
+
+        Cursor a = new Cursor(left);
+        Cursor b = new Cursor(right);
+        long[] result = new long[Math.min(a.count, b.count)];
+        int size = 0;
+
+        if (!a.hasNext() || !b.hasNext()) {
+            return EMPTY;
+        }
+
+        a.next();
+        b.next();
+        while (true) {
+            if (a.value == b.value) {
+                result[size++] = a.value;
+                if (!a.hasNext() || !b.hasNext()) {
+                    break;
+                }
+                a.next();
+                b.next();
+            } else if (a.value < b.value) {
+                if (!a.seek(b.value)) {
+                    break;
+                }
+            } else if (!b.seek(a.value)) {
+                break;
+            }
+        }
+
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Добавляет и удаляет id слиянием с отсортированным потоком, не распаковывая множество в
+     * {@code Set<Long>}. Id, который есть в обоих списках, удаляется.
+     *
+     * @return новое представление или тот же массив {@code data}, если множество не изменилось
+     */
+    public static byte[] update(byte[] data, Collection<Long> added, Collection<Long> removed) {
+        long[] add = sortedDistinct(added);
+        long[] remove = sortedDistinct(removed);
+        Cursor cursor = new Cursor(data == null ? encodeSorted(EMPTY) : data);
+        long[] result = new long[cursor.count + add.length];
+        int size = 0;
+        int a = 0;
+        int r = 0;
+        boolean changed = false;
+
+        boolean hasCurrent = cursor.hasNext();
+        long current = hasCurrent ? cursor.next() : 0;
+        while (hasCurrent || a < add.length) {
+            long id;
+            boolean stored = hasCurrent && (a == add.length || current <= add[a]);
+
+            if (stored) {
+                id = current;
+                if (a < add.length && add[a] == current) {
+                    a++;
+                }
+                hasCurrent = cursor.hasNext();
+                if (hasCurrent) {
+                    current = cursor.next();
+                }
+            } else {
+                id = add[a++];
+            }
+
+            while (r < remove.length && remove[r] < id) {
+                r++;
+            }
+            boolean dropped = r < remove.length && remove[r] == id;
+            if (dropped == stored) {
+                changed = true;
+            }
+            if (!dropped) {
+                result[size++] = id;
+            }
+        }
+
+        return changed ? encodeSorted(Arrays.copyOf(result, size)) : data;
+    }
+
+    private static long[] sortedDistinct(Collection<Long> ids) {
+        return ids.isEmpty() ? EMPTY : ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+    }
+
+    private static final class Cursor {
+        private final byte[] data;
+        private final int count;
+        private final int blockCount;
+        private final int indexStart;
+        private final int dataStart;
+        private int block = -1;
+        private int remainingInBlock;
+        private int returned;
+        private int pos;
+        private long value;
+
+        Cursor(byte[] data) {
+            this.data = data;
+            this.count = (int) readVarint(data, 0);
+            this.blockCount = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            this.indexStart = varintSize(count);
+            this.dataStart = indexStart + blockCount * INDEX_ENTRY;
+        }
+
+        boolean hasNext() {
+            return returned < count;
+        }
+
+        long next() {
+            if (remainingInBlock == 0) {
+                enterBlock(block + 1);
+            } else {
+                long delta = readVarint(data, pos);
+                pos += varintSize(delta);
+                value += delta;
+                remainingInBlock--;
+            }
+            returned++;
+            return value;
+        }
+
+        /**
+         * Сдвигает курсор на первый id не меньше target.
+         *
+         * @return false, если такого id нет
+         */
+        boolean seek(long target) {
+            if (returned > 0 && value >= target) {
+                return true;
+            }
+
+            int candidate = lastBlockStartingAtOrBefore(target);
+            if (candidate > block) {
+                enterBlock(candidate);
+                returned = candidate * BLOCK_SIZE + 1;
+            } else if (!hasNext()) {
+                return false;
+            } else {
+                next();
+            }
+
+            while (value < target) {
+                if (!hasNext()) {
+                    return false;
+                }
+                next();
+            }
+            return true;
+        }
+
+        private int lastBlockStartingAtOrBefore(long target) {
+            int low = Math.max(block, 0);
+            int high = blockCount - 1;
+
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (firstId(mid) <= target) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        private void enterBlock(int index) {
+            int entry = indexStart + index * INDEX_ENTRY;
+            block = index;
+            value = getLong(data, entry);
+            pos = dataStart + getInt(data, entry + Long.BYTES);
+            remainingInBlock = Math.min(BLOCK_SIZE, count - index * BLOCK_SIZE) - 1;
+        }
+
+        private long firstId(int index) {
+            return getLong(data, indexStart + index * INDEX_ENTRY);
+        }
+    }
+
+    private static int writeVarint(byte[] out, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static long readVarint(byte[] data, int pos) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+
+        do {
+            b = data[pos++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+
+        return value;
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static void putLong(byte[] out, int pos, long value) {
+        for (int i = 7; i >= 0; i--) {
+            out[pos + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static void putInt(byte[] out, int pos, int value) {
+        for (int i = 3; i >= 0; i--) {
+            out[pos + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static long getLong(byte[] data, int pos) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (data[pos + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static int getInt(byte[] data, int pos) {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | (data[pos + i] & 0xFF);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate.storage.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Арена байтовых блоков вне кучи (строки, наборы id). Блоки только дописываются;
+ * освобождённые блоки учитываются как мусор, который убирает уплотнение в хранилище.
+ * Не потокобезопасна: синхронизацию обеспечивает владелец.
+ */
+public class OffHeapArena {
+
+    public static final long NULL = -1L;
+
+    private final int chunkSize;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer current;
+    private long usedBytes;
+    private long garbageBytes;
+
+    public OffHeapArena(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public long write(byte[] data) {
+        if (data == null) {
+            return NULL;
+        }
+
+        int size = Integer.BYTES + data.length;
+
+        if (current == null || current.remaining() < size) {
+            current = ByteBuffer.allocateDirect(Math.max(chunkSize, size));
+            chunks.add(current);
+        }
+
+        int offset = current.position();
+        current.putInt(offset, data.length);
+        current.put(offset + Integer.BYTES, data);
+        current.position(offset + size);
+        usedBytes += size;
+
+        return ((long) (chunks.size() - 1) << 32) | offset;
+    }
+
+    public byte[] read(long ref) {
+        if (ref == NULL) {
+            return null;
+        }
+
+        ByteBuffer chunk = chunks.get((int) (ref >>> 32));
+        int offset = (int) ref;
+        byte[] data = new byte[chunk.getInt(offset)];
+        chunk.get(offset + Integer.BYTES, data);
+
+        return data;
+    }
+
+    public void release(long ref) {
+        if (ref == NULL) {
+            return;
+        }
+
+        ByteBuffer chunk = chunks.get((int) (ref >>> 32));
+        garbageBytes += Integer.BYTES + chunk.getInt((int) ref);
+    }
+
+    public boolean needsCompaction() {
+        return garbageBytes > chunkSize && garbageBytes * 2 > usedBytes;
+    }
+
+    public long usedBytes() {
+        return usedBytes;
+    }
+
+    public long garbageBytes() {
+        return garbageBytes;
+    }
+}
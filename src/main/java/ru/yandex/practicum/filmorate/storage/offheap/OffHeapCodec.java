@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate.storage.offheap;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Set;
+
+public final class OffHeapCodec {
+
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    private OffHeapCodec() {
+    }
+
+    public static byte[] encodeString(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static String decodeString(byte[] data) {
+        return data == null ? null : new String(data, StandardCharsets.UTF_8);
+    }
+
+    public static long encodeDate(LocalDate date) {
+        return date == null ? NO_DATE : date.toEpochDay();
+    }
+
+    public static LocalDate decodeDate(long epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    public static byte[] encodeIds(Collection<Long> ids) {
+        return CompressedIds.encode(ids);
+    }
+
+    public static Set<Long> decodeIds(byte[] data) {
+        return CompressedIds.decode(data);
+    }
+}
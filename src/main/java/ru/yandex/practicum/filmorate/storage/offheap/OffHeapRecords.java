@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.storage.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Записи фиксированного размера вне кучи, адресуемые напрямую по id.
+ * Первый байт записи — признак наличия, поля задаются смещением от начала данных записи.
+ * Не потокобезопасна: синхронизацию обеспечивает владелец.
+ */
+public class OffHeapRecords {
+
+    private static final int RECORDS_PER_PAGE = 4096;
+
+    private final int recordSize;
+    private final List<ByteBuffer> pages = new ArrayList<>();
+    private long maxId;
+    private long count;
+
+    public OffHeapRecords(int fieldsSize) {
+        this.recordSize = 1 + fieldsSize;
+    }
+
+    public boolean contains(long id) {
+        ByteBuffer page = pageOf(id);
+        return page != null && page.get(offsetOf(id)) == 1;
+    }
+
+    public void add(long id) {
+        ensurePage(id).put(offsetOf(id), (byte) 1);
+        maxId = Math.max(maxId, id);
+        count++;
+    }
+
+    public long maxId() {
+        return maxId;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public int getInt(long id, int field) {
+        return pageOf(id).getInt(offsetOf(id) + 1 + field);
+    }
+
+    public void putInt(long id, int field, int value) {
+        pageOf(id).putInt(offsetOf(id) + 1 + field, value);
+    }
+
+    public long getLong(long id, int field) {
+        return pageOf(id).getLong(offsetOf(id) + 1 + field);
+    }
+
+    public void putLong(long id, int field, long value) {
+        pageOf(id).putLong(offsetOf(id) + 1 + field, value);
+    }
+
+    private ByteBuffer pageOf(long id) {
+        if (id <= 0) {
+            return null;
+        }
+
+        long page = id / RECORDS_PER_PAGE;
+        return page < pages.size() ? pages.get((int) page) : null;
+    }
+
+    private ByteBuffer ensurePage(long id) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Id записи должен быть положительным");
+        }
+
+        int page = (int) (id / RECORDS_PER_PAGE);
+
+        while (pages.size() <= page) {
+            pages.add(ByteBuffer.allocateDirect(RECORDS_PER_PAGE * recordSize));
+        }
+
+        return pages.get(page);
+    }
+
+    private int offsetOf(long id) {
+        return (int) (id % RECORDS_PER_PAGE) * recordSize;
+    }
+}
@@ -1,20 +1,26 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.Versioning;
 
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Component
+@ConditionalOnProperty(name = "filmorate.storage.type", havingValue = "in-memory", matchIfMissing = true)
 public class InMemoryUserStorage implements UserStorage {
-    private final Map<Long, User> users = new HashMap<>();
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    private final AtomicLong lastId = new AtomicLong();
 
     @Override
     public Collection<User> findAll() {
@@ -27,10 +33,10 @@ public class InMemoryUserStorage implements UserStorage {
         log.info("Запрос на создание пользователя");
 
 
-        user.setId(getNextId());
+        user.setId(lastId.incrementAndGet());
 
 
-        users.put(user.getId(), user);
+        users.put(user.getId(), initial(user));
         log.info("Создан пользователь с id={}", user.getId());
         return user;
     }
@@ -40,10 +46,26 @@ public class InMemoryUserStorage implements UserStorage {
         Long id = user.getId();
         log.info("Запрос на обновление пользователя с id={}", id);
 
-        users.put(id, user);
-        log.info("Обновлён пользователь с id={}", id);
+        lastId.accumulateAndGet(id, Math::max);
 
-        return user;
+        while (true) {
+            User current = users.get(id);
+
+            if (current == null) {
+                if (users.putIfAbsent(id, initial(user)) == null) {
+                    log.info("Обновлён пользователь с id={}", id);
+                    return user;
+                }
+                continue;
+            }
+
+            User merged = Versioning.merge(current, user);
+
+            if (users.replace(id, current, merged)) {
+                log.info("Обновлён пользователь с id={}, версия {}", id, merged.getVersion());
+                return merged;
+            }
+        }
     }
 
     @Override
@@ -55,13 +77,42 @@ public class InMemoryUserStorage implements UserStorage {
     }
 
 
-    private long getNextId() {
-        long currentMaxId = users.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return currentMaxId + 1;
+    @Override
+    public void addFriend(Long userId, Long friendId) {
+        User user = users.get(userId);
+        User friend = users.get(friendId);
+
+        if (user == null || friend == null) {
+            return;
+        }
+
+        user.getFriends().add(friendId);
+        friend.getFriends().add(userId);
+        log.info("Пользователи id={} и id={} добавлены в друзья", userId, friendId);
+    }
+
+    @Override
+    public void removeFriend(Long userId, Long friendId) {
+        User user = users.get(userId);
+        User friend = users.get(friendId);
+
+        if (user == null || friend == null) {
+            return;
+        }
+
+        user.getFriends().remove(friendId);
+        friend.getFriends().remove(userId);
+        log.info("Пользователи id={} и id={} удалены из друзей", userId, friendId);
+    }
+
+    private static User initial(User user) {
+        Set<Long> friends = ConcurrentHashMap.newKeySet();
+        if (user.getFriends() != null) {
+            friends.addAll(user.getFriends());
+        }
+        user.setFriends(friends);
+        user.setVersion(Versioning.INITIAL_VERSION);
+        return user;
     }
 
 
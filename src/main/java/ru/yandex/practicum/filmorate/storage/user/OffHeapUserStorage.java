@@ -0,0 +1,302 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.LazyRelation;
+import ru.yandex.practicum.filmorate.storage.Versioning;
+import ru.yandex.practicum.filmorate.storage.offheap.CompressedIds;
+import ru.yandex.practicum.filmorate.storage.offheap.OffHeapArena;
+import ru.yandex.practicum.filmorate.storage.offheap.OffHeapRecords;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static ru.yandex.practicum.filmorate.storage.offheap.OffHeapCodec.*;
+
+/**
+ * Пользователи хранятся вне кучи: поля фиксированной длины — в {@link OffHeapRecords},
+ * строки и друзья — в {@link OffHeapArena}. Объект {@link User} собирается только при чтении,
+ * а друзья читаются из арены и декодируются, только когда к ним обращаются. Списки друзей хранятся
+ * в сжатом виде {@link CompressedIds}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.type", havingValue = "off-heap")
+public class OffHeapUserStorage implements UserStorage {
+
+    private static final int BIRTHDAY = 0;
+    private static final int EMAIL = 8;
+    private static final int LOGIN = 16;
+    private static final int NAME = 24;
+    private static final int FRIENDS = 32;
+    private static final int FRIENDS_COUNT = 40;
+    private static final int VERSION = 44;
+    private static final int FIELDS_SIZE = 52;
+    private static final int[] ARENA_FIELDS = {EMAIL, LOGIN, NAME, FRIENDS};
+    private static final int[] SCALAR_ARENA_FIELDS = {EMAIL, LOGIN, NAME};
+
+    private final int chunkSize;
+    private final OffHeapRecords records = new OffHeapRecords(FIELDS_SIZE);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private OffHeapArena arena;
+
+    public OffHeapUserStorage(@Value("${filmorate.storage.off-heap.chunk-size:4194304}") int chunkSize) {
+        this.chunkSize = chunkSize;
+        this.arena = new OffHeapArena(chunkSize);
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        log.info("Запрос вывода всех пользователей");
+
+        lock.readLock().lock();
+        try {
+            List<User> users = new ArrayList<>((int) records.count());
+            for (long id = 1; id <= records.maxId(); id++) {
+                if (records.contains(id)) {
+                    users.add(read(id));
+                }
+            }
+            return users;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public User create(User user) {
+        log.info("Запрос на создание пользователя");
+
+        lock.writeLock().lock();
+        try {
+            long id = records.maxId() + 1;
+            user.setId(id);
+            user.setVersion(Versioning.INITIAL_VERSION);
+            records.add(id);
+            write(id, user);
+            writeFriends(id, user.getFriends());
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Создан пользователь с id={}", user.getId());
+        return user;
+    }
+
+    @Override
+    public User update(User user) {
+        if (user.getId() == null) {
+            throw NotFoundException.user(null);
+        }
+        long id = user.getId();
+        log.info("Запрос на обновление пользователя с id={}", id);
+
+        User updated;
+
+        lock.writeLock().lock();
+        try {
+            if (records.contains(id)) {
+                long version = records.getLong(id, VERSION);
+                Versioning.checkVersion("Пользователь", id, user.getVersion(), version);
+                for (int field : SCALAR_ARENA_FIELDS) {
+                    arena.release(records.getLong(id, field));
+                }
+                user.setVersion(version + 1);
+                write(id, user);
+            } else {
+                user.setVersion(Versioning.INITIAL_VERSION);
+                records.add(id);
+                write(id, user);
+                writeFriends(id, user.getFriends());
+            }
+            compactIfNeeded();
+            updated = read(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Обновлён пользователь с id={}, версия {}", id, updated.getVersion());
+        return updated;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        lock.readLock().lock();
+        try {
+            return exists(id) ? Optional.of(read(id)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void addFriend(Long userId, Long friendId) {
+        lock.writeLock().lock();
+        try {
+            if (exists(userId) && exists(friendId)) {
+                updateFriends(userId, friendId, true);
+                updateFriends(friendId, userId, true);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Пользователи id={} и id={} добавлены в друзья", userId, friendId);
+    }
+
+    @Override
+    public void removeFriend(Long userId, Long friendId) {
+        lock.writeLock().lock();
+        try {
+            if (exists(userId) && exists(friendId)) {
+                updateFriends(userId, friendId, false);
+                updateFriends(friendId, userId, false);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Пользователи id={} и id={} удалены из друзей", userId, friendId);
+    }
+
+    @Override
+    public Set<Long> getFriendIds(Long userId) {
+        lock.readLock().lock();
+        try {
+            return exists(userId) ? decodeIds(arena.read(records.getLong(userId, FRIENDS))) : Set.of();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Пересекает сжатые списки друзей прямо в байтах арены, не собирая промежуточных {@code Set<Long>}.
+     */
+    @Override
+    public Set<Long> getCommonFriendIds(Long userId, Long otherId) {
+        long[] common;
+
+        lock.readLock().lock();
+        try {
+            if (!exists(userId) || !exists(otherId)) {
+                return Set.of();
+            }
+            common = CompressedIds.intersect(arena.read(records.getLong(userId, FRIENDS)),
+                    arena.read(records.getLong(otherId, FRIENDS)));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Set<Long> ids = new LinkedHashSet<>(common.length * 2);
+        for (long id : common) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    @Override
+    public int getFriendsCount(Long userId) {
+        lock.readLock().lock();
+        try {
+            return exists(userId) ? records.getInt(userId, FRIENDS_COUNT) : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void updateFriends(long userId, long friendId, boolean add) {
+        long friendsRef = records.getLong(userId, FRIENDS);
+        byte[] current = arena.read(friendsRef);
+        List<Long> changed = List.of(friendId);
+        byte[] updated = add
+                ? CompressedIds.update(current, changed, List.of())
+                : CompressedIds.update(current, List.of(), changed);
+
+        if (updated == current) {
+            return;
+        }
+
+        arena.release(friendsRef);
+        records.putLong(userId, FRIENDS, arena.write(updated));
+        records.putInt(userId, FRIENDS_COUNT, CompressedIds.size(updated));
+    }
+
+    private boolean exists(Long id) {
+        return id != null && records.contains(id);
+    }
+
+    private User read(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setBirthday(decodeDate(records.getLong(id, BIRTHDAY)));
+        user.setEmail(decodeString(arena.read(records.getLong(id, EMAIL))));
+        user.setLogin(decodeString(arena.read(records.getLong(id, LOGIN))));
+        user.setName(decodeString(arena.read(records.getLong(id, NAME))));
+        user.setFriends(relation(records.getInt(id, FRIENDS_COUNT), records.getLong(id, FRIENDS)));
+        user.setVersion(records.getLong(id, VERSION));
+        return user;
+    }
+
+    /**
+     * Блоки арены только дописываются, а уплотнение переносит живые блоки в новую арену, не трогая
+     * старую. Поэтому пара «арена на момент чтения + ссылка» остаётся валидной и после изменения
+     * или уплотнения, и байты набора можно прочитать позже, когда к нему обратятся.
+     */
+    private LazyRelation relation(int size, long ref) {
+        OffHeapArena source = arena;
+        return new LazyRelation(size, () -> readBlock(source, ref));
+    }
+
+    private byte[] readBlock(OffHeapArena source, long ref) {
+        lock.readLock().lock();
+        try {
+            return source.read(ref);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(long id, User user) {
+        records.putLong(id, BIRTHDAY, encodeDate(user.getBirthday()));
+        records.putLong(id, EMAIL, arena.write(encodeString(user.getEmail())));
+        records.putLong(id, LOGIN, arena.write(encodeString(user.getLogin())));
+        records.putLong(id, NAME, arena.write(encodeString(user.getName())));
+        records.putLong(id, VERSION, user.getVersion());
+    }
+
+    private void writeFriends(long id, Set<Long> friends) {
+        Set<Long> ids = friends == null ? Set.of() : friends;
+
+        records.putLong(id, FRIENDS, arena.write(encodeIds(ids)));
+        records.putInt(id, FRIENDS_COUNT, ids.size());
+    }
+
+    private void compactIfNeeded() {
+        if (!arena.needsCompaction()) {
+            return;
+        }
+
+        OffHeapArena compacted = new OffHeapArena(chunkSize);
+
+        for (long id = 1; id <= records.maxId(); id++) {
+            if (records.contains(id)) {
+                for (int field : ARENA_FIELDS) {
+                    records.putLong(id, field, compacted.write(arena.read(records.getLong(id, field))));
+                }
+            }
+        }
+
+        log.info("Уплотнена арена пользователей: {} байт мусора освобождено", arena.garbageBytes());
+        arena = compacted;
+    }
+}
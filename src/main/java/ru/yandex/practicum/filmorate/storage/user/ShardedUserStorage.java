@@ -0,0 +1,120 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.ShardedMap;
+import ru.yandex.practicum.filmorate.storage.Versioning;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Списки друзей хранятся неизменяемыми множествами и при изменении заменяются целиком. Снимок
+ * сущности поэтому разделяет множество с хранимой копией, а не копирует его при каждом чтении.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.type", havingValue = "sharded")
+public class ShardedUserStorage implements UserStorage {
+
+    private final ShardedMap<User> users;
+    private final AtomicLong lastId = new AtomicLong();
+
+    public ShardedUserStorage(@Value("${filmorate.storage.shards:0}") int shards) {
+        this.users = new ShardedMap<>(shards > 0 ? shards : Runtime.getRuntime().availableProcessors(),
+                ShardedUserStorage::copyOf);
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        log.info("Запрос вывода всех пользователей");
+        return users.values();
+    }
+
+    @Override
+    public User create(User user) {
+        log.info("Запрос на создание пользователя");
+
+        user.setId(lastId.incrementAndGet());
+        user.setVersion(Versioning.INITIAL_VERSION);
+
+        users.put(user.getId(), user);
+        log.info("Создан пользователь с id={}", user.getId());
+        return user;
+    }
+
+    @Override
+    public User update(User user) {
+        Long id = user.getId();
+        log.info("Запрос на обновление пользователя с id={}", id);
+
+        lastId.accumulateAndGet(id, Math::max);
+        User updated = users.update(id, current -> {
+            if (current == null) {
+                user.setVersion(Versioning.INITIAL_VERSION);
+                return copyOf(user);
+            }
+            return Versioning.merge(current, user);
+        });
+        log.info("Обновлён пользователь с id={}, версия {}", id, updated.getVersion());
+
+        return updated;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return Optional.ofNullable(users.get(id));
+    }
+
+    @Override
+    public void addFriend(Long userId, Long friendId) {
+        users.computePair(userId, friendId, (user, friend) -> {
+            if (user != null && friend != null) {
+                user.setFriends(with(user.getFriends(), friendId));
+                friend.setFriends(with(friend.getFriends(), userId));
+            }
+        });
+        log.info("Пользователи id={} и id={} добавлены в друзья", userId, friendId);
+    }
+
+    @Override
+    public void removeFriend(Long userId, Long friendId) {
+        users.computePair(userId, friendId, (user, friend) -> {
+            if (user != null && friend != null) {
+                user.setFriends(without(user.getFriends(), friendId));
+                friend.setFriends(without(friend.getFriends(), userId));
+            }
+        });
+        log.info("Пользователи id={} и id={} удалены из друзей", userId, friendId);
+    }
+
+    private static Set<Long> with(Set<Long> friends, Long friendId) {
+        Set<Long> updated = new HashSet<>(friends);
+        updated.add(friendId);
+        return Set.copyOf(updated);
+    }
+
+    private static Set<Long> without(Set<Long> friends, Long friendId) {
+        Set<Long> updated = new HashSet<>(friends);
+        updated.remove(friendId);
+        return Set.copyOf(updated);
+    }
+
+    private static User copyOf(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setEmail(user.getEmail());
+        copy.setLogin(user.getLogin());
+        copy.setName(user.getName());
+        copy.setBirthday(user.getBirthday());
+        copy.setFriends(Set.copyOf(user.getFriends()));
+        copy.setVersion(user.getVersion());
+        return copy;
+    }
+}
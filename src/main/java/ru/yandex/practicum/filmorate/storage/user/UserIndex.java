@@ -0,0 +1,130 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Уникальные индексы email и логина (без учёта регистра и пробелов по краям). Ключ резервируется
+ * атомарным putIfAbsent до записи в хранилище, поэтому из двух одновременных регистраций
+ * с одним email проходит ровно одна. Пока пользователь создаётся, ключ указывает на {@link #PENDING}.
+ */
+@Component
+public class UserIndex {
+
+    private static final Long PENDING = 0L;
+
+    private final Map<String, Long> emails = new ConcurrentHashMap<>();
+    private final Map<String, Long> logins = new ConcurrentHashMap<>();
+
+    public Reservation reserve(User user, User previous) {
+        Long owner = previous == null ? PENDING : previous.getId();
+        Reservation reservation = new Reservation(owner, previous);
+
+        reservation.claim(emails, user.getEmail(), "Email");
+        reservation.claim(logins, user.getLogin(), "Логин");
+        return reservation;
+    }
+
+    /**
+     * Заполняет индексы заново по всем пользователям хранилища. Вызывается при старте, до приёма запросов.
+     */
+    public void rebuild(Collection<User> users) {
+        emails.clear();
+        logins.clear();
+        for (User user : users) {
+            reindex(null, user);
+        }
+    }
+
+    public void reindex(User previous, User current) {
+        put(emails, previous == null ? null : previous.getEmail(), current.getEmail(), current.getId());
+        put(logins, previous == null ? null : previous.getLogin(), current.getLogin(), current.getId());
+    }
+
+    public Optional<Long> findByEmail(String email) {
+        return find(emails, email);
+    }
+
+    public Optional<Long> findByLogin(String login) {
+        return find(logins, login);
+    }
+
+    private static Optional<Long> find(Map<String, Long> index, String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        Long id = index.get(normalize(value));
+        return id == null || PENDING.equals(id) ? Optional.empty() : Optional.of(id);
+    }
+
+    private static void put(Map<String, Long> index, String oldValue, String newValue, Long id) {
+        if (newValue != null) {
+            index.put(normalize(newValue), id);
+        }
+        releaseIfChanged(index, oldValue, newValue, id);
+    }
+
+    private static void releaseIfChanged(Map<String, Long> index, String oldValue, String newValue, Long id) {
+        if (oldValue != null && (newValue == null || !normalize(oldValue).equals(normalize(newValue)))) {
+            index.remove(normalize(oldValue), id);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.strip().toLowerCase(Locale.ROOT);
+    }
+
+    public final class Reservation {
+        private final Long owner;
+        private final User previous;
+        private final List<Map.Entry<Map<String, Long>, String>> claimed = new ArrayList<>(2);
+
+        private Reservation(Long owner, User previous) {
+            this.owner = owner;
+            this.previous = previous;
+        }
+
+        public void commit(User saved) {
+            Long id = saved.getId();
+
+            for (Map.Entry<Map<String, Long>, String> entry : claimed) {
+                entry.getKey().replace(entry.getValue(), owner, id);
+            }
+            if (previous != null) {
+                releaseIfChanged(emails, previous.getEmail(), saved.getEmail(), id);
+                releaseIfChanged(logins, previous.getLogin(), saved.getLogin(), id);
+            }
+        }
+
+        public void cancel() {
+            for (Map.Entry<Map<String, Long>, String> entry : claimed) {
+                entry.getKey().remove(entry.getValue(), owner);
+            }
+        }
+
+        private void claim(Map<String, Long> index, String value, String field) {
+            if (value == null) {
+                return;
+            }
+
+            String key = normalize(value);
+            Long existing = index.putIfAbsent(key, owner);
+
+            if (existing == null) {
+                claimed.add(Map.entry(index, key));
+            } else if (PENDING.equals(owner) || !existing.equals(owner)) {
+                cancel();
+                throw new ConflictException(field + " " + value + " уже используется");
+            }
+        }
+    }
+}
@@ -5,7 +5,9 @@ import ru.yandex.practicum.filmorate.model.User;
 
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 
 
 public interface UserStorage {
@@ -19,5 +21,23 @@ public interface UserStorage {
 
     Optional<User> findById(Long id);
 
+    void addFriend(Long userId, Long friendId);
+
+    void removeFriend(Long userId, Long friendId);
+
+    default Set<Long> getFriendIds(Long userId) {
+        return findById(userId).map(User::getFriends).orElse(Set.of());
+    }
+
+    default Set<Long> getCommonFriendIds(Long userId, Long otherId) {
+        Set<Long> common = new HashSet<>(getFriendIds(userId));
+        common.retainAll(getFriendIds(otherId));
+        return common;
+    }
+
+    default int getFriendsCount(Long userId) {
+        return findById(userId).map(User::getFriendsCount).orElse(0);
+    }
+
 
 }
@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.validation;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Текущая дата, пересчитываемая один раз за сутки: между сменами дня {@link #today()} не создаёт объектов.
+ */
+public class DayClock {
+
+    private static final DayClock SYSTEM = new DayClock(Clock.systemDefaultZone());
+
+    private final Clock clock;
+    private volatile Day day;
+
+    public DayClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    public static DayClock system() {
+        return SYSTEM;
+    }
+
+    public LocalDate today() {
+        Day current = day;
+
+        if (current == null || clock.millis() >= current.nextDayMillis()) {
+            current = refresh();
+        }
+
+        return current.date();
+    }
+
+    private Day refresh() {
+        LocalDate date = LocalDate.now(clock);
+        long nextDayMillis = date.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        Day current = new Day(date, nextDayMillis);
+        day = current;
+        return current;
+    }
+
+    private record Day(LocalDate date, long nextDayMillis) {
+    }
+}
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.validation;
+
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+
+public class FilmValidator extends RuleValidator<Film> {
+
+    public static final int MAX_DESCRIPTION_LENGTH = 200;
+    public static final LocalDate MIN_RELEASE_DATE = LocalDate.of(1895, 12, 28);
+
+    public FilmValidator(DayClock dayClock) {
+        super(FilmRule.values(), dayClock);
+    }
+
+    private enum FilmRule implements Rule<Film> {
+        NAME("Название не может быть пустым") {
+            @Override
+            public boolean isViolated(Film film, LocalDate today) {
+                return film.getName() == null || film.getName().isBlank();
+            }
+        },
+        DESCRIPTION("Максимальная длина описания — 200 символов") {
+            @Override
+            public boolean isViolated(Film film, LocalDate today) {
+                return film.getDescription() != null && film.getDescription().length() > MAX_DESCRIPTION_LENGTH;
+            }
+        },
+        RELEASE_DATE_MIN("Дата релиза — не раньше 28 декабря 1895 года") {
+            @Override
+            public boolean isViolated(Film film, LocalDate today) {
+                return film.getReleaseDate() == null || film.getReleaseDate().isBefore(MIN_RELEASE_DATE);
+            }
+        },
+        RELEASE_DATE_MAX("Дата релиза не может быть в будущем") {
+            @Override
+            public boolean isViolated(Film film, LocalDate today) {
+                return film.getReleaseDate() != null && film.getReleaseDate().isAfter(today);
+            }
+        },
+        DURATION("Продолжительность фильма должна быть положительным числом") {
+            @Override
+            public boolean isViolated(Film film, LocalDate today) {
+                return film.getDuration() <= 0;
+            }
+        };
+
+        private final String message;
+
+        FilmRule(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String message() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package ru.yandex.practicum.filmorate.validation;
+
+import java.time.LocalDate;
+
+interface Rule<T> {
+
+    boolean isViolated(T value, LocalDate today);
+
+    String message();
+}
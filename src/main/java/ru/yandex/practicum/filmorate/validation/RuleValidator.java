@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.validation;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.time.LocalDate;
+
+/**
+ * Проверка по заранее собранному списку правил. Успешная проверка не создаёт объектов,
+ * при первой ошибке бросается {@link ValidationException} без стектрейса.
+ */
+abstract class RuleValidator<T> {
+
+    private final Rule<T>[] rules;
+    private final DayClock dayClock;
+
+    RuleValidator(Rule<T>[] rules, DayClock dayClock) {
+        this.rules = rules;
+        this.dayClock = dayClock;
+    }
+
+    public void validate(T value) {
+        LocalDate today = dayClock.today();
+
+        for (Rule<T> rule : rules) {
+            if (rule.isViolated(value, today)) {
+                throw new ValidationException(rule.message());
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.validation;
+
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+
+public class UserValidator extends RuleValidator<User> {
+
+    public UserValidator(DayClock dayClock) {
+        super(UserRule.values(), dayClock);
+    }
+
+    private enum UserRule implements Rule<User> {
+        EMAIL_BLANK("Электронная почта не может быть пустой") {
+            @Override
+            public boolean isViolated(User user, LocalDate today) {
+                return user.getEmail() == null || user.getEmail().isBlank();
+            }
+        },
+        EMAIL_AT("Электронная почта должна содержать символ @") {
+            @Override
+            public boolean isViolated(User user, LocalDate today) {
+                return user.getEmail() != null && !user.getEmail().isBlank() && user.getEmail().indexOf('@') < 0;
+            }
+        },
+        LOGIN("Логин не может быть пустым и содержать пробелы") {
+            @Override
+            public boolean isViolated(User user, LocalDate today) {
+                String login = user.getLogin();
+                return login == null || login.isBlank() || login.indexOf(' ') >= 0;
+            }
+        },
+        BIRTHDAY("Дата рождения не может быть в будущем") {
+            @Override
+            public boolean isViolated(User user, LocalDate today) {
+                return user.getBirthday() == null || user.getBirthday().isAfter(today);
+            }
+        };
+
+        private final String message;
+
+        UserRule(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String message() {
+            return message;
+        }
+    }
+}
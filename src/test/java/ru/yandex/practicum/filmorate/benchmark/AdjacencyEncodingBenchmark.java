@@ -0,0 +1,92 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.yandex.practicum.filmorate.storage.offheap.CompressedIds;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Списки друзей как {@code HashSet<Long>} против {@link CompressedIds}: пересечение двух списков
+ * (общие друзья) и проверка членства. Перед запуском JMH main печатает размер представлений
+ * на один id: сжатое, прежний отсортированный long[] и оценка для HashSet (узел, Long и ячейка таблицы).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdjacencyEncodingBenchmark {
+
+    private static final int ID_RANGE = 1_000_000;
+    private static final int HASH_SET_BYTES_PER_ID = 56;
+
+    @Param({"16", "256", "4096"})
+    public int size;
+
+    private Set<Long> left;
+    private Set<Long> right;
+    private byte[] leftCompressed;
+    private byte[] rightCompressed;
+    private long[] probes;
+    private int probe;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        left = randomIds(random, size);
+        right = randomIds(random, size);
+        right.addAll(left.stream().limit(size / 4).toList());
+        leftCompressed = CompressedIds.encode(left);
+        rightCompressed = CompressedIds.encode(right);
+        probes = random.longs(1024, 1, ID_RANGE).toArray();
+    }
+
+    @Benchmark
+    public Set<Long> hashSetIntersect() {
+        Set<Long> common = new HashSet<>(left);
+        common.retainAll(right);
+        return common;
+    }
+
+    @Benchmark
+    public long[] compressedIntersect() {
+        return CompressedIds.intersect(leftCompressed, rightCompressed);
+    }
+
+    @Benchmark
+    public boolean hashSetContains() {
+        return left.contains(probes[probe++ & 1023]);
+    }
+
+    @Benchmark
+    public boolean compressedContains() {
+        return CompressedIds.contains(leftCompressed, probes[probe++ & 1023]);
+    }
+
+    private static Set<Long> randomIds(Random random, int count) {
+        Set<Long> ids = new HashSet<>();
+        while (ids.size() < count) {
+            ids.add(1L + random.nextInt(ID_RANGE));
+        }
+        return ids;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int size : new int[]{16, 256, 4096, 65536}) {
+            byte[] compressed = CompressedIds.encode(randomIds(new Random(42), size));
+            System.out.printf("%d ids: compressed %.2f B/id, sorted long[] %d B/id, HashSet ~%d B/id%n",
+                    size, (double) compressed.length / size, Long.BYTES, HASH_SET_BYTES_PER_ID);
+        }
+
+        new Runner(new OptionsBuilder()
+                .include(AdjacencyEncodingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
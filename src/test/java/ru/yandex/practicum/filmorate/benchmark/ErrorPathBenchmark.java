@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.yandex.practicum.filmorate.exception.ErrorHandler;
+import ru.yandex.practicum.filmorate.exception.ErrorResponse;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность ответа 404 для одного и того же отсутствующего id: прежний путь
+ * (исключение со стеком, склеенное сообщение, WARN на каждый запрос, новое тело ответа)
+ * против текущего ErrorHandler (исключение без стека, WARN с ограничением частоты). Вывод логов лучше перенаправить в файл: before пишет строку на каждую операцию.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(ErrorPathBenchmark.class);
+
+    private final ErrorHandler errorHandler = new ErrorHandler();
+
+    @Param({"42"})
+    public long id;
+
+    @Benchmark
+    public void before(Blackhole blackhole) {
+        try {
+            throw new RuntimeException("Фильм с id=" + id + " не найден");
+        } catch (RuntimeException e) {
+            log.warn("Ошибка 404: {}", e.getMessage());
+            blackhole.consume(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    @Benchmark
+    public void after(Blackhole blackhole) {
+        try {
+            throw NotFoundException.film(id);
+        } catch (NotFoundException e) {
+            blackhole.consume(errorHandler.handleNotFound(e));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ErrorPathBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
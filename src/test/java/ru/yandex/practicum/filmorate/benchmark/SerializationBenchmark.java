@@ -0,0 +1,112 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сравнение JSON, CBOR и Smile на ответах вида GET /films и GET /users/{id}/friends.
+ * Запуск: main из IDE или {@code java -cp target/test-classes:<classpath> ...SerializationBenchmark}.
+ * Размеры ответов (в том числе после gzip) печатаются при старте каждого прогона.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"100", "1000"})
+    public int size;
+
+    private ObjectMapper mapper;
+    private List<Film> films;
+    private List<User> users;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        mapper = new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        films = new ArrayList<>(size);
+        users = new ArrayList<>(size);
+
+        for (long i = 1; i <= size; i++) {
+            Film film = new Film();
+            film.setId(i);
+            film.setName("Film " + i);
+            film.setDescription("Description of film " + i);
+            film.setReleaseDate(LocalDate.of(2000, 1, 1).plusDays(i));
+            film.setDuration(90 + (int) (i % 60));
+            for (long like = 1; like <= i % 50; like++) {
+                film.getLikes().add(like * 31);
+            }
+            films.add(film);
+
+            User user = new User();
+            user.setId(i);
+            user.setEmail("user" + i + "@example.com");
+            user.setLogin("user" + i);
+            user.setName("User " + i);
+            user.setBirthday(LocalDate.of(1990, 1, 1).plusDays(i));
+            for (long friend = 1; friend <= i % 20; friend++) {
+                user.getFriends().add(friend * 17);
+            }
+            users.add(user);
+        }
+
+        System.out.printf("%n%s, size=%d: films %d bytes (gzip %d), users %d bytes (gzip %d)%n", format, size,
+                films().length, gzip(films()), users().length, gzip(users()));
+    }
+
+    @Benchmark
+    public byte[] films() throws IOException {
+        return mapper.writeValueAsBytes(films);
+    }
+
+    @Benchmark
+    public byte[] users() throws IOException {
+        return mapper.writeValueAsBytes(users);
+    }
+
+    private static int gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SerializationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.OffHeapUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Занятая куча и GC-паузы при загрузке пользователей в хранилище. Паузы берутся из событий JFR
+ * {@code jdk.GCPhasePause}: это время, когда потоки приложения стояли, а не суммарная работа
+ * сборщика, бо́льшая часть которой у G1 идёт параллельно с приложением. Полная сборка для замера
+ * кучи в конце в паузы не входит. Запуск в отдельной JVM на каждый вариант, например:
+ * {@code java -Xmx4g -XX:MaxDirectMemorySize=4g ... StorageFootprintBenchmark off-heap 5000000}.
+ */
+public class StorageFootprintBenchmark {
+
+    public static void main(String[] args) {
+        String type = args.length > 0 ? args[0] : "in-memory";
+        int users = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        UserStorage storage = "off-heap".equals(type) ? new OffHeapUserStorage(4 << 20) : new InMemoryUserStorage();
+
+        long heapBefore = usedHeapAfterGc();
+        List<Duration> pauses = Collections.synchronizedList(new ArrayList<>());
+        RecordingStream gcEvents = new RecordingStream();
+        gcEvents.enable("jdk.GCPhasePause");
+        gcEvents.onEvent("jdk.GCPhasePause", event -> pauses.add(event.getDuration()));
+        gcEvents.startAsync();
+        long start = System.nanoTime();
+
+        for (int i = 1; i <= users; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@example.com");
+            user.setLogin("user" + i);
+            user.setName("User " + i);
+            user.setBirthday(LocalDate.of(1970, 1, 1).plusDays(i % 15000));
+            for (long friend = 1; friend <= i % 10; friend++) {
+                user.getFriends().add((i + friend * 7919) % users + 1);
+            }
+            storage.update(withId(user, i));
+        }
+
+        long loadMillis = (System.nanoTime() - start) / 1_000_000;
+        gcEvents.stop();
+        gcEvents.close();
+        long heapAfter = usedHeapAfterGc();
+
+        List<Duration> sorted = pauses.stream().sorted().toList();
+        System.out.printf("%s: %d users loaded in %d ms, heap %d MB%n", type, users, loadMillis,
+                (heapAfter - heapBefore) >> 20);
+        System.out.printf("GC pauses: %d, total %.1f ms, p50 %.2f ms, p99 %.2f ms, max %.2f ms%n", sorted.size(),
+                sorted.stream().mapToLong(Duration::toNanos).sum() / 1e6, percentile(sorted, 0.50),
+                percentile(sorted, 0.99), percentile(sorted, 1.0));
+    }
+
+    private static double percentile(List<Duration> sorted, double quantile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0)).toNanos() / 1e6;
+    }
+
+    private static User withId(User user, long id) {
+        user.setId(id);
+        return user;
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.validation.DayClock;
+import ru.yandex.practicum.filmorate.validation.FilmValidator;
+import ru.yandex.practicum.filmorate.validation.UserValidator;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка фильмов и пользователей. Запускается с GC-профайлером:
+ * у validFilm и validUser значение gc.alloc.rate.norm должно быть около 0 байт на операцию.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private final FilmValidator filmValidator = new FilmValidator(DayClock.system());
+    private final UserValidator userValidator = new UserValidator(DayClock.system());
+
+    private Film validFilm;
+    private Film invalidFilm;
+    private User validUser;
+
+    @Setup
+    public void setUp() {
+        validFilm = new Film();
+        validFilm.setName("name");
+        validFilm.setDescription("description");
+        validFilm.setReleaseDate(LocalDate.of(2000, 1, 1));
+        validFilm.setDuration(120);
+
+        invalidFilm = new Film();
+        invalidFilm.setName("name");
+        invalidFilm.setReleaseDate(LocalDate.of(2000, 1, 1));
+
+        validUser = new User();
+        validUser.setEmail("mail@mail.ru");
+        validUser.setLogin("login");
+        validUser.setBirthday(LocalDate.of(2000, 1, 1));
+    }
+
+    @Benchmark
+    public void validFilm() {
+        filmValidator.validate(validFilm);
+    }
+
+    @Benchmark
+    public void validUser() {
+        userValidator.validate(validUser);
+    }
+
+    @Benchmark
+    public void invalidFilm(Blackhole blackhole) {
+        try {
+            filmValidator.validate(invalidFilm);
+        } catch (ValidationException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ValidationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonFragmentCacheTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void shouldCacheOnlyWhenNothingChangedSinceRead() {
+        JsonFragmentCache cache = new JsonFragmentCache("f");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        assertFalse(cache.unchangedSinceRead(), "без отметки чтения фрагмент не сохраняется");
+
+        cache.beforeRead();
+        assertTrue(cache.unchangedSinceRead());
+
+        cache.invalidate(1L);
+        assertFalse(cache.unchangedSinceRead(), "объект мог быть прочитан до изменения");
+
+        cache.beforeRead();
+        assertTrue(cache.unchangedSinceRead());
+    }
+
+    @Test
+    void shouldNotCacheOutsideRequest() {
+        JsonFragmentCache cache = new JsonFragmentCache("u");
+
+        cache.beforeRead();
+
+        assertFalse(cache.unchangedSinceRead());
+    }
+
+    @Test
+    void shouldDropFragmentOfOutdatedVersion() {
+        JsonFragmentCache cache = new JsonFragmentCache("f");
+        long version = cache.version(1L);
+
+        cache.invalidate(1L);
+        cache.put(1L, version, "{}");
+
+        assertNull(cache.get(1L));
+    }
+}
@@ -0,0 +1,102 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void shouldShareOneComputationBetweenConcurrentCalls() throws Exception {
+        SingleFlight<Integer> flight = new SingleFlight<>(60_000);
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> flight.execute("popular:10", () -> {
+                computations.incrementAndGet();
+                await(release);
+                return 42;
+            })));
+        }
+        while (flight.stats().requests() < 8) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        for (Future<Integer> result : results) {
+            assertEquals(42, result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertEquals(1, computations.get());
+        assertEquals(8, flight.stats().requests());
+        assertEquals(1, flight.stats().executions());
+        assertEquals(0.875, flight.stats().coalescingRatio(), 1e-9);
+    }
+
+    @Test
+    void shouldReleaseWaitersWhenLoaderThrowsError() throws Exception {
+        SingleFlight<Integer> flight = new SingleFlight<>(60_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        Future<Integer> leader = executor.submit(() -> flight.execute("key", () -> {
+            started.countDown();
+            await(release);
+            throw new StackOverflowError();
+        }));
+        await(started);
+        FutureTask<Integer> waiter = new FutureTask<>(() -> flight.execute("key", () -> 1));
+        Thread waiterThread = new Thread(waiter);
+        waiterThread.start();
+        while (waiterThread.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        ExecutionException leaderError = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException waiterError = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertInstanceOf(StackOverflowError.class, leaderError.getCause());
+        assertInstanceOf(StackOverflowError.class, waiterError.getCause());
+        assertEquals(2, flight.execute("key", () -> 2));
+    }
+
+    @Test
+    void shouldReuseResultWithinWindowAndNotCacheFailures() {
+        SingleFlight<Integer> flight = new SingleFlight<>(60_000);
+        AtomicInteger computations = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> flight.execute("key", () -> {
+            computations.incrementAndGet();
+            throw new IllegalStateException();
+        }));
+        assertEquals(2, flight.execute("key", computations::incrementAndGet));
+        assertEquals(2, flight.execute("key", computations::incrementAndGet));
+        assertEquals(3, flight.execute("other", computations::incrementAndGet));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
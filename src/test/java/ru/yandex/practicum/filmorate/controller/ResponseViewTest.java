@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ResponseViewTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private long userId;
+    private long friendId;
+    private long filmId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        userId = create("/users", """
+                {"email": "view-user-%d@example.com", "login": "viewUser%d", "name": "User",
+                 "birthday": "2000-01-01"}""");
+        friendId = create("/users", """
+                {"email": "view-friend-%d@example.com", "login": "viewFriend%d", "name": "Friend",
+                 "birthday": "2000-01-01"}""");
+        filmId = create("/films", """
+                {"name": "Film", "description": "desc", "releaseDate": "2000-01-01", "duration": 100}""");
+
+        mockMvc.perform(put("/films/{id}/like/{userId}", filmId, userId)).andExpect(status().isOk());
+        mockMvc.perform(put("/users/{id}/friends/{friendId}", userId, friendId)).andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldReturnFilmSummaryByDefault() throws Exception {
+        mockMvc.perform(get("/films/popular").param("count", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == %d)].likesCount", filmId).value(contains(1)))
+                .andExpect(jsonPath("$[?(@.id == %d)].name", filmId).value(contains("Film")))
+                .andExpect(jsonPath("$[0].likes").doesNotExist());
+    }
+
+    @Test
+    void shouldReturnFullFilmWhenRequested() throws Exception {
+        mockMvc.perform(get("/films/popular").param("count", "1000").param("view", "full"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == %d)].likes[*]", filmId).value(contains((int) userId)))
+                .andExpect(jsonPath("$[0].likesCount").doesNotExist());
+    }
+
+    @Test
+    void shouldReturnUserSummaryByDefault() throws Exception {
+        mockMvc.perform(get("/users/{id}/friends", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(friendId))
+                .andExpect(jsonPath("$[0].name").value("Friend"))
+                .andExpect(jsonPath("$[0].friendsCount").value(1))
+                .andExpect(jsonPath("$[0].friends").doesNotExist());
+    }
+
+    @Test
+    void shouldReturnFullUserWhenRequested() throws Exception {
+        mockMvc.perform(get("/users/{id}/friends", userId).param("view", "FULL"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(friendId))
+                .andExpect(jsonPath("$[0].friends[*]").value(contains((int) userId)))
+                .andExpect(jsonPath("$[0].friendsCount").doesNotExist());
+    }
+
+    @Test
+    void shouldRejectUnknownView() throws Exception {
+        mockMvc.perform(get("/films/popular").param("view", "compact"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Параметр view должен быть summary или full"));
+    }
+
+    private long create(String path, String template) throws Exception {
+        long unique = System.nanoTime();
+        String body = mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(template.replace("%d", Long.toString(unique))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(body, "$.id")).longValue();
+    }
+}
@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortestPathTest {
+
+    private static FriendGraph graph(long users, long[][] friendships) {
+        Map<Long, Set<Long>> friends = new HashMap<>();
+        long[] ids = new long[(int) users];
+        for (long id = 1; id <= users; id++) {
+            friends.put(id, new HashSet<>());
+            ids[(int) id - 1] = id;
+        }
+        for (long[] pair : friendships) {
+            friends.get(pair[0]).add(pair[1]);
+            friends.get(pair[1]).add(pair[0]);
+        }
+        return FriendGraph.build(ids, friends::get);
+    }
+
+    private static ShortestPath.Result find(FriendGraph graph, int maxDepth, int parallelThreshold, long from, long to) {
+        return new ShortestPath(graph, maxDepth, 1_000, parallelThreshold)
+                .find(graph.indexOf(from), graph.indexOf(to), Long.MAX_VALUE);
+    }
+
+    @Test
+    void shouldFindShortestChainWhenSequentialOrParallel() {
+        FriendGraph graph = graph(7, new long[][]{{1, 2}, {2, 3}, {3, 4}, {4, 5}, {1, 6}, {6, 7}, {7, 5}});
+
+        assertArrayEquals(new long[]{1, 6, 7, 5}, find(graph, 6, 4096, 1, 5).path());
+        assertArrayEquals(new long[]{1, 6, 7, 5}, find(graph, 6, 1, 1, 5).path());
+        assertArrayEquals(new long[]{5, 4, 3, 2}, find(graph, 6, 4096, 5, 2).path());
+        assertArrayEquals(new long[]{3}, find(graph, 6, 4096, 3, 3).path());
+    }
+
+    @Test
+    void shouldDistinguishDisconnectedUsersFromReachedLimits() {
+        FriendGraph graph = graph(7, new long[][]{{1, 2}, {2, 3}, {3, 4}, {4, 5}, {6, 7}});
+
+        ShortestPath.Result disconnected = find(graph, 6, 4096, 1, 7);
+        ShortestPath.Result tooDeep = find(graph, 3, 4096, 1, 5);
+
+        assertFalse(disconnected.isFound());
+        assertFalse(disconnected.limitReached());
+        assertFalse(tooDeep.isFound());
+        assertTrue(tooDeep.limitReached());
+    }
+}
@@ -0,0 +1,209 @@
+package ru.yandex.practicum.filmorate.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Синтетические данные со степенным распределением: популярность фильмов и число друзей
+ * пользователей подчиняются закону Ципфа с показателем skew. При одинаковом seed набор
+ * данных воспроизводится. Запись идёт напрямую в хранилища или через REST API, например:
+ * {@code DatasetGenerator http://localhost:8080 10000 2000 20 10 1.1 42}.
+ */
+public class DatasetGenerator {
+
+    private final Config config;
+
+    public DatasetGenerator(Config config) {
+        this.config = config;
+    }
+
+    public Dataset generate(Sink sink) {
+        Random random = new Random(config.seed());
+        long[] userIds = new long[config.users()];
+        long[] filmIds = new long[config.films()];
+
+        for (int i = 0; i < userIds.length; i++) {
+            userIds[i] = sink.createUser(newUser(i, random));
+        }
+        for (int i = 0; i < filmIds.length; i++) {
+            filmIds[i] = sink.createFilm(newFilm(i, random));
+        }
+
+        ZipfSampler popularFilm = new ZipfSampler(filmIds.length, config.skew());
+        long likes = Math.round(userIds.length * config.likesPerUser());
+        for (long i = 0; i < likes; i++) {
+            sink.addLike(filmIds[popularFilm.sample(random)], userIds[random.nextInt(userIds.length)]);
+        }
+
+        ZipfSampler popularUser = new ZipfSampler(userIds.length, config.skew());
+        long friendships = Math.round(userIds.length * config.friendsPerUser() / 2);
+        for (long i = 0; i < friendships; i++) {
+            long userId = userIds[random.nextInt(userIds.length)];
+            long friendId = userIds[popularUser.sample(random)];
+            if (userId != friendId) {
+                sink.addFriend(userId, friendId);
+            }
+        }
+
+        return new Dataset(userIds, filmIds);
+    }
+
+    public static Sink storageSink(FilmStorage filmStorage, UserStorage userStorage) {
+        return new Sink() {
+            @Override
+            public long createUser(User user) {
+                return userStorage.create(user).getId();
+            }
+
+            @Override
+            public long createFilm(Film film) {
+                return filmStorage.create(film).getId();
+            }
+
+            @Override
+            public void addLike(long filmId, long userId) {
+                filmStorage.addLike(filmId, userId);
+            }
+
+            @Override
+            public void addFriend(long userId, long friendId) {
+                userStorage.addFriend(userId, friendId);
+            }
+        };
+    }
+
+    public static Sink httpSink(String baseUrl) {
+        HttpClient client = HttpClient.newHttpClient();
+        ObjectMapper mapper = new ObjectMapper();
+
+        return new Sink() {
+            @Override
+            public long createUser(User user) {
+                return id(send("POST", "/users", String.format(
+                        "{\"email\":\"%s\",\"login\":\"%s\",\"name\":\"%s\",\"birthday\":\"%s\"}",
+                        user.getEmail(), user.getLogin(), user.getName(), user.getBirthday())));
+            }
+
+            @Override
+            public long createFilm(Film film) {
+                return id(send("POST", "/films", String.format(
+                        "{\"name\":\"%s\",\"description\":\"%s\",\"releaseDate\":\"%s\",\"duration\":%d}",
+                        film.getName(), film.getDescription(), film.getReleaseDate(), film.getDuration())));
+            }
+
+            @Override
+            public void addLike(long filmId, long userId) {
+                send("PUT", "/films/" + filmId + "/like/" + userId, null);
+            }
+
+            @Override
+            public void addFriend(long userId, long friendId) {
+                send("PUT", "/users/" + userId + "/friends/" + friendId, null);
+            }
+
+            private String send(String method, String path, String json) {
+                HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .header("Content-Type", "application/json")
+                        .method(method, json == null
+                                ? HttpRequest.BodyPublishers.noBody()
+                                : HttpRequest.BodyPublishers.ofString(json));
+                try {
+                    HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+                    if (response.statusCode() >= 400) {
+                        throw new IllegalStateException(method + " " + path + " -> " + response.statusCode()
+                                + ": " + response.body());
+                    }
+                    return response.body();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            private long id(String body) {
+                try {
+                    return mapper.readTree(body).get("id").asLong();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    private User newUser(int index, Random random) {
+        User user = new User();
+        user.setEmail("user" + index + "-" + config.seed() + "@example.com");
+        user.setLogin("user" + index + "_" + config.seed());
+        user.setName("User " + index);
+        user.setBirthday(LocalDate.of(1950, 1, 1).plusDays(random.nextInt(20_000)));
+        return user;
+    }
+
+    private Film newFilm(int index, Random random) {
+        Film film = new Film();
+        film.setName("Film " + index);
+        film.setDescription("Synthetic film " + index);
+        film.setReleaseDate(LocalDate.of(1960, 1, 1).plusDays(random.nextInt(23_000)));
+        film.setDuration(60 + random.nextInt(120));
+        return film;
+    }
+
+    public static void main(String[] args) {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        Config config = Config.fromArgs(args, 1);
+
+        long start = System.nanoTime();
+        Dataset dataset = new DatasetGenerator(config).generate(httpSink(baseUrl));
+
+        System.out.printf("Загружено %d пользователей и %d фильмов за %d мс%n", dataset.userIds().length,
+                dataset.filmIds().length, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public interface Sink {
+        long createUser(User user);
+
+        long createFilm(Film film);
+
+        void addLike(long filmId, long userId);
+
+        void addFriend(long userId, long friendId);
+    }
+
+    public record Dataset(long[] userIds, long[] filmIds) {
+    }
+
+    public record Config(int users, int films, double likesPerUser, double friendsPerUser, double skew, long seed) {
+
+        static Config fromArgs(String[] args, int offset) {
+            return new Config(
+                    intArg(args, offset, 10_000),
+                    intArg(args, offset + 1, 2_000),
+                    doubleArg(args, offset + 2, 20),
+                    doubleArg(args, offset + 3, 10),
+                    doubleArg(args, offset + 4, 1.1),
+                    args.length > offset + 5 ? Long.parseLong(args[offset + 5]) : 42);
+        }
+
+        private static int intArg(String[] args, int index, int defaultValue) {
+            return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+        }
+
+        private static double doubleArg(String[] args, int index, double defaultValue) {
+            return args.length > index ? Double.parseDouble(args[index]) : defaultValue;
+        }
+    }
+}
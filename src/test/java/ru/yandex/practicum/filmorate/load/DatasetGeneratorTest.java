@@ -0,0 +1,35 @@
+package ru.yandex.practicum.filmorate.load;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatasetGeneratorTest {
+
+    private static List<Integer> likeCounts(long seed) {
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        DatasetGenerator.Config config = new DatasetGenerator.Config(500, 100, 10, 6, 1.2, seed);
+
+        new DatasetGenerator(config).generate(DatasetGenerator.storageSink(filmStorage, userStorage));
+
+        assertEquals(500, userStorage.findAll().size());
+        assertEquals(100, filmStorage.findAll().size());
+        return filmStorage.findAll().stream().sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                .map(Film::getLikesCount).toList();
+    }
+
+    @Test
+    void shouldGenerateSkewedAndReproducibleDataset() {
+        List<Integer> likes = likeCounts(7);
+
+        assertEquals(likes, likeCounts(7));
+        assertTrue(likes.get(0) > 10 * likes.get(likes.size() - 1) + 10,
+                "Первый по рангу фильм должен собирать заметно больше лайков, чем последний: " + likes);
+    }
+}
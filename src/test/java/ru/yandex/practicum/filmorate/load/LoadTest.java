@@ -0,0 +1,186 @@
+package ru.yandex.practicum.filmorate.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочный сценарий поверх REST API: сначала загружается синтетический набор данных
+ * ({@link DatasetGenerator}), затем потоки в течение заданного времени выполняют смесь чтений,
+ * лайков, дружбы и запросов топа. Выбор операций и id воспроизводится по seed. В конце печатаются
+ * пропускная способность и перцентили задержек по каждой операции.
+ * {@code LoadTest http://localhost:8080 16 30 10000 2000 20 10 1.1 42}
+ * <p>
+ * С {@code -Dload.api=reactive} те же операции идут через {@code /reactive/**}: так MVC и
+ * реактивные контроллеры сравниваются на одной смеси запросов.
+ */
+public class LoadTest {
+
+    enum Operation {
+        GET_FILM(30),
+        GET_USER(15),
+        REACTIVE_GET_FILM(10),
+        POPULAR(15),
+        LIKE(20),
+        FRIEND(10);
+
+        private final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private final String baseUrl;
+    private final String apiPrefix = "reactive".equals(System.getProperty("load.api")) ? "/reactive" : "";
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final DatasetGenerator.Dataset dataset;
+    private final double skew;
+
+    LoadTest(String baseUrl, DatasetGenerator.Dataset dataset, double skew) {
+        this.baseUrl = baseUrl;
+        this.dataset = dataset;
+        this.skew = skew;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        DatasetGenerator.Config config = DatasetGenerator.Config.fromArgs(args, 3);
+
+        System.out.printf("Загрузка данных: %s%n", config);
+        DatasetGenerator.Dataset dataset = new DatasetGenerator(config).generate(DatasetGenerator.httpSink(baseUrl));
+
+        new LoadTest(baseUrl, dataset, config.skew()).run(threads, seconds, config.seed());
+    }
+
+    void run(int threads, int seconds, long seed) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        Future<?>[] workers = new Future<?>[threads];
+        Recorder[] recorders = new Recorder[threads];
+
+        for (int i = 0; i < threads; i++) {
+            Recorder recorder = new Recorder();
+            Random random = new Random(seed + i);
+            recorders[i] = recorder;
+            workers[i] = executor.submit(() -> work(random, recorder, deadline));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+
+        report(recorders, seconds);
+    }
+
+    private void work(Random random, Recorder recorder, long deadline) {
+        ZipfSampler films = new ZipfSampler(dataset.filmIds().length, skew);
+        ZipfSampler users = new ZipfSampler(dataset.userIds().length, skew);
+        int totalWeight = Arrays.stream(Operation.values()).mapToInt(operation -> operation.weight).sum();
+
+        while (System.nanoTime() < deadline) {
+            Operation operation = pick(random.nextInt(totalWeight));
+            long filmId = dataset.filmIds()[films.sample(random)];
+            long userId = dataset.userIds()[users.sample(random)];
+            long otherId = dataset.userIds()[random.nextInt(dataset.userIds().length)];
+
+            HttpRequest request = switch (operation) {
+                case GET_FILM -> get(apiPrefix + "/films/" + filmId);
+                case GET_USER -> get(apiPrefix + "/users/" + userId);
+                case REACTIVE_GET_FILM -> get("/reactive/films/" + filmId);
+                case POPULAR -> get(apiPrefix + "/films/popular?count=10");
+                case LIKE -> put(apiPrefix + "/films/" + filmId + "/like/" + otherId);
+                case FRIEND -> put(apiPrefix + "/users/" + otherId + "/friends/" + userId);
+            };
+
+            long start = System.nanoTime();
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            recorder.record(operation, System.nanoTime() - start, status);
+        }
+    }
+
+    private static Operation pick(int ticket) {
+        for (Operation operation : Operation.values()) {
+            ticket -= operation.weight;
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest put(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).PUT(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private static void report(Recorder[] recorders, int seconds) {
+        System.out.printf("%-18s %10s %10s %9s %9s %9s %9s %8s%n",
+                "операция", "запросов", "в секунду", "p50, мс", "p95, мс", "p99, мс", "max, мс", "ошибок");
+
+        long total = 0;
+        for (Operation operation : Operation.values()) {
+            long[] latencies = Arrays.stream(recorders)
+                    .flatMapToLong(recorder -> Arrays.stream(recorder.latencies(operation)))
+                    .sorted()
+                    .toArray();
+            long errors = Arrays.stream(recorders).mapToLong(recorder -> recorder.errors[operation.ordinal()]).sum();
+            total += latencies.length;
+
+            System.out.printf("%-18s %10d %10.1f %9.2f %9.2f %9.2f %9.2f %8d%n", operation, latencies.length,
+                    latencies.length / (double) seconds, percentile(latencies, 0.50), percentile(latencies, 0.95),
+                    percentile(latencies, 0.99), percentile(latencies, 1.0), errors);
+        }
+        System.out.printf("Итого: %d запросов, %.1f в секунду%n", total, total / (double) seconds);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.max(0, Math.ceil(sorted.length * p) - 1)] / 1e6;
+    }
+
+    private static final class Recorder {
+        private final long[][] latencies = new long[Operation.values().length][1024];
+        private final int[] counts = new int[Operation.values().length];
+        private final long[] errors = new long[Operation.values().length];
+
+        void record(Operation operation, long nanos, int status) {
+            int index = operation.ordinal();
+            if (counts[index] == latencies[index].length) {
+                latencies[index] = Arrays.copyOf(latencies[index], counts[index] * 2);
+            }
+            latencies[index][counts[index]++] = nanos;
+
+            if (status == 0 || status >= 400) {
+                errors[index]++;
+            }
+        }
+
+        long[] latencies(Operation operation) {
+            return Arrays.copyOf(latencies[operation.ordinal()], counts[operation.ordinal()]);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ru.yandex.practicum.filmorate.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время до готовности и RSS варианта сборки: запускает команду несколько раз, замеряет время
+ * от старта процесса до первого ответа 200 на заданный адрес и RSS процесса в этот момент
+ * (из /proc, только Linux), затем останавливает процесс. Печатает замеры и медианы.
+ * {@code StartupProbe http://localhost:8080/films 5 java -jar target/filmorate-0.0.1-SNAPSHOT.jar}
+ */
+public class StartupProbe {
+
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.out.println("Аргументы: адрес-проверки число-запусков команда...");
+            return;
+        }
+
+        URI readiness = URI.create(args[0]);
+        int runs = Integer.parseInt(args[1]);
+        List<String> command = Arrays.asList(args).subList(2, args.length);
+
+        new StartupProbe().run(readiness, runs, command);
+    }
+
+    void run(URI readiness, int runs, List<String> command) throws Exception {
+        long[] readyMillis = new long[runs];
+        long[] rssKb = new long[runs];
+
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            try {
+                awaitReady(readiness, process, start);
+                readyMillis[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                rssKb[i] = rssKb(process.pid());
+            } finally {
+                process.destroy();
+                if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                    process.destroyForcibly().waitFor();
+                }
+            }
+            System.out.printf("Запуск %d: готов через %d мс, RSS %d МБ%n", i + 1, readyMillis[i], rssKb[i] >> 10);
+        }
+
+        System.out.printf("Медиана: готов через %d мс, RSS %d МБ%n", median(readyMillis), median(rssKb) >> 10);
+    }
+
+    private void awaitReady(URI readiness, Process process, long start) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(readiness).timeout(Duration.ofSeconds(1)).GET().build();
+
+        while (System.nanoTime() - start < TIMEOUT_NANOS) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Процесс завершился с кодом " + process.exitValue());
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // сервер ещё не слушает порт
+            }
+            Thread.sleep(10);
+        }
+
+        throw new IllegalStateException("Приложение не стало готовым за 60 секунд");
+    }
+
+    private static long rssKb(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                .findFirst()
+                .orElse(-1);
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.load;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Выбор ранга 0..n-1 с вероятностью, пропорциональной 1 / (rank + 1)^skew.
+ * При skew = 0 распределение равномерное.
+ */
+final class ZipfSampler {
+
+    private final double[] cumulative;
+
+    ZipfSampler(int n, double skew) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1 / Math.pow(rank + 1, skew);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= sum;
+        }
+    }
+
+    int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecorderServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @TempDir
+    Path downloads;
+
+    @Test
+    void shouldDumpServiceEventsWhileRecording() throws Exception {
+        FlightRecorderService recorder = new FlightRecorderService("profile", 60, 16, 60, directory.toString());
+
+        assertEquals("RUNNING", recorder.start().state());
+        assertThrows(ConflictException.class, recorder::start);
+
+        ServiceOperationEvent.start().finish("getCommonFriends", 1, 2, 3);
+        StorageOperationEvent.start().finish(this, "getCommonFriendIds", 1, 3);
+
+        List<RecordedEvent> events = download(recorder);
+        RecordedEvent service = events.stream()
+                .filter(event -> event.getEventType().getName().equals("filmorate.ServiceOperation"))
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals("getCommonFriends", service.getString("operation"));
+        assertEquals(2, service.getLong("otherId"));
+        assertEquals(3, service.getInt("resultSize"));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("filmorate.StorageOperation")
+                && "FlightRecorderServiceTest".equals(event.getString("storage"))));
+        assertTrue(events.stream().noneMatch(event -> event.getEventType().getName().startsWith("jdk.Initial")),
+                "переменные окружения и системные свойства не должны попадать в запись");
+        assertEquals(0, filesIn(directory), "временный файл выгрузки должен удаляться");
+
+        assertEquals("STOPPED", recorder.stop().state());
+        assertThrows(ConflictException.class, recorder::stop);
+        assertFalse(download(recorder).isEmpty(), "остановленную запись ещё можно выгрузить");
+
+        recorder.shutdown();
+        assertEquals("CLOSED", recorder.status().state());
+        assertThrows(ConflictException.class, recorder::openDump);
+    }
+
+    private List<RecordedEvent> download(FlightRecorderService recorder) throws IOException {
+        Path file = Files.createTempFile(downloads, "download", ".jfr");
+        try (InputStream in = recorder.openDump()) {
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static long filesIn(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
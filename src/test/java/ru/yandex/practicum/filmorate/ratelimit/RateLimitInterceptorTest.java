@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.yandex.practicum.filmorate.exception.TooManyRequestsException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitInterceptorTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private final InMemoryUserStorage userStorage = new InMemoryUserStorage();
+
+    @Test
+    void shouldKeyUserBucketOnlyForExistingUsers() {
+        RateLimiter limiter = new RateLimiter(true, 1, 100, 100, 60_000, clock::get);
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(limiter,
+                new LoadShedder(false, 1, 4, 100, clock::get), userStorage);
+        User user = newUser();
+
+        for (long id = 1_000; id < 1_050; id++) {
+            assertTrue(interceptor.preHandle(like(String.valueOf(id)), response, null));
+        }
+        assertTrue(interceptor.preHandle(like("abc"), response, null));
+        assertEquals(1, limiter.size());
+
+        assertTrue(interceptor.preHandle(like(user.getId().toString()), response, null));
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    void shouldNotAdmitOrTimeRequestsWhenSheddingIsDisabled() {
+        LoadShedder shedder = new LoadShedder(false, 1, 1, 100, clock::get);
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(
+                new RateLimiter(false, 1, 1, 100, 60_000, clock::get), shedder, userStorage);
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = like("1");
+            assertTrue(interceptor.preHandle(request, response, null));
+            assertNull(request.getAttribute(RateLimitInterceptor.class.getName() + ".admittedAt"));
+        }
+        assertTrue(shedder.tryAdmit());
+    }
+
+    @Test
+    void shouldShedWritesButNotReadsWhenEnabled() {
+        LoadShedder shedder = new LoadShedder(true, 1, 1, 100, clock::get);
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(
+                new RateLimiter(false, 1, 1, 100, 60_000, clock::get), shedder, userStorage);
+        MockHttpServletRequest first = like("1");
+
+        assertTrue(interceptor.preHandle(first, response, null));
+        assertThrows(TooManyRequestsException.class, () -> interceptor.preHandle(like("1"), response, null));
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/films/1"), response, null));
+
+        interceptor.afterCompletion(first, response, null, null);
+        assertTrue(interceptor.preHandle(like("1"), response, null));
+    }
+
+    private static MockHttpServletRequest like(String userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/films/1/like/" + userId);
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", "1", "userId", userId));
+        return request;
+    }
+
+    private User newUser() {
+        User user = new User();
+        user.setEmail("mail@example.com");
+        user.setLogin("user");
+        user.setName("user");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return userStorage.create(user);
+    }
+}
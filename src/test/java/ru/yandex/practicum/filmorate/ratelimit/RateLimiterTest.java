@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+
+    @Test
+    void shouldRejectWhenBurstIsExhaustedAndRefillOverTime() {
+        RateLimiter limiter = new RateLimiter(true, 10, 3, 100, 60_000, clock::get);
+
+        assertTrue(limiter.tryAcquire("user:1"));
+        assertTrue(limiter.tryAcquire("user:1"));
+        assertTrue(limiter.tryAcquire("user:1"));
+        assertFalse(limiter.tryAcquire("user:1"));
+        assertTrue(limiter.tryAcquire("user:2"));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertTrue(limiter.tryAcquire("user:1"));
+        assertFalse(limiter.tryAcquire("user:1"));
+    }
+
+    @Test
+    void shouldEvictIdleBucketsAndStripeOverflowBucketsWhenFull() {
+        RateLimiter limiter = new RateLimiter(true, 10, 1, 2, 1_000, clock::get);
+        String abuser = "ip:abuser";
+        String sameStripe = IntStream.range(0, 10_000).mapToObj(i -> "ip:" + i)
+                .filter(key -> RateLimiter.overflowStripe(key) == RateLimiter.overflowStripe(abuser))
+                .findFirst()
+                .orElseThrow();
+        String otherStripe = IntStream.range(0, 10_000).mapToObj(i -> "ip:" + i)
+                .filter(key -> RateLimiter.overflowStripe(key) != RateLimiter.overflowStripe(abuser))
+                .findFirst()
+                .orElseThrow();
+
+        assertTrue(limiter.tryAcquire("user:1"));
+        assertTrue(limiter.tryAcquire("user:2"));
+        assertTrue(limiter.tryAcquire(abuser));
+        assertFalse(limiter.tryAcquire(abuser));
+        assertFalse(limiter.tryAcquire(sameStripe));
+        assertTrue(limiter.tryAcquire(otherStripe));
+        assertEquals(2, limiter.size());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        limiter.tryAcquire("user:5");
+
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    void shouldHalveConcurrencyLimitWhenP99IsAboveThreshold() {
+        LoadShedder shedder = new LoadShedder(true, 1, 4, 100, clock::get);
+
+        assertTrue(shedder.tryAdmit());
+        shedder.release();
+
+        long start = clock.get();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1_500));
+        shedder.recordLatency(start);
+
+        assertEquals(2, shedder.getLimit());
+        assertTrue(shedder.tryAdmit());
+        assertTrue(shedder.tryAdmit());
+        assertFalse(shedder.tryAdmit());
+    }
+}
@@ -0,0 +1,253 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.cache.JsonCache;
+import ru.yandex.practicum.filmorate.cache.SingleFlights;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.LikeBuffer;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserIndex;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicatorTest {
+
+    private final Map<String, Node> nodes = new HashMap<>();
+    private Node first;
+    private Node second;
+
+    @BeforeEach
+    void setUp() {
+        first = new Node(0, "second");
+        second = new Node(1, "first");
+        nodes.put("first", first);
+        nodes.put("second", second);
+    }
+
+    @AfterEach
+    void tearDown() {
+        first.replicator.shutdown();
+        second.replicator.shutdown();
+    }
+
+    @Test
+    void shouldConvergeWhenBothNodesAcceptWrites() {
+        User u1 = first.userService.create(newUser("first"));
+        User u2 = second.userService.create(newUser("second"));
+        Film film = second.filmService.create(newFilm());
+        syncAll();
+
+        assertNotEquals(u1.getId(), u2.getId());
+
+        first.filmService.addLike(film.getId(), u1.getId());
+        second.filmService.addLike(film.getId(), u2.getId());
+        first.userService.addFriend(u1.getId(), u2.getId());
+        syncAll();
+
+        for (Node node : List.of(first, second)) {
+            assertEquals(Set.of(u1.getId(), u2.getId()), node.filmService.findById(film.getId()).getLikes());
+            assertEquals(Set.of(u2.getId()), node.userService.findById(u1.getId()).getFriends());
+            assertEquals(Set.of(u1.getId()), node.userService.findById(u2.getId()).getFriends());
+        }
+    }
+
+    @Test
+    void shouldPickSameWinnerWhenLikeAndUnlikeConflict() {
+        User user = first.userService.create(newUser("first"));
+        Film film = first.filmService.create(newFilm());
+        first.filmService.addLike(film.getId(), user.getId());
+        syncAll();
+
+        first.filmService.removeLike(film.getId(), user.getId());
+        second.filmService.addLike(film.getId(), user.getId());
+        syncAll();
+
+        assertEquals(first.filmService.findById(film.getId()).getLikes(),
+                second.filmService.findById(film.getId()).getLikes());
+    }
+
+    @Test
+    void shouldKeepRelationsWhenEntityUpdatedOnOtherNode() {
+        User user = first.userService.create(newUser("first"));
+        Film film = first.filmService.create(newFilm());
+        syncAll();
+
+        first.filmService.addLike(film.getId(), user.getId());
+        Film update = newFilm();
+        update.setId(film.getId());
+        update.setName("Другое название");
+        second.filmService.update(update);
+        syncAll();
+
+        for (Node node : List.of(first, second)) {
+            Film replicated = node.filmService.findById(film.getId());
+            assertEquals("Другое название", replicated.getName());
+            assertEquals(Set.of(user.getId()), replicated.getLikes());
+        }
+    }
+
+    @Test
+    void shouldIndexUsersReplicatedFromOtherNode() {
+        User user = first.userService.create(newUser("first"));
+        syncAll();
+
+        assertEquals(user.getId(), second.userService.findByEmail("first@example.com").getId());
+
+        User renamed = newUser("renamed");
+        renamed.setId(user.getId());
+        first.userService.update(renamed);
+        syncAll();
+
+        assertEquals(user.getId(), second.userService.findByLogin("renamed").getId());
+        assertThrows(NotFoundException.class, () -> second.userService.findByLogin("first"));
+        assertThrows(ConflictException.class, () -> second.userService.create(newUser("renamed")));
+        assertDoesNotThrow(() -> second.userService.create(newUser("first")));
+    }
+
+    @Test
+    void shouldSendSnapshotWhenOutboxOverflowsWhilePeerIsDown() {
+        User user = first.userService.create(newUser("first"));
+        Film film = first.filmService.create(newFilm());
+        syncAll();
+
+        second.down = true;
+        for (int i = 0; i < 10; i++) {
+            first.filmService.addLike(film.getId(), user.getId());
+            first.filmService.removeLike(film.getId(), user.getId());
+        }
+        first.filmService.addLike(film.getId(), user.getId());
+        Film renamed = newFilm();
+        renamed.setId(film.getId());
+        renamed.setName("После восстановления");
+        first.filmService.update(renamed);
+        syncAll();
+
+        second.down = false;
+        syncAll();
+
+        Film replicated = second.filmService.findById(film.getId());
+        assertEquals("После восстановления", replicated.getName());
+        assertEquals(Set.of(user.getId()), replicated.getLikes());
+    }
+
+    @Test
+    void shouldKeepWritesCommittedDuringSnapshotQueued() {
+        User user = first.userService.create(newUser("first"));
+        Film film = first.filmService.create(newFilm());
+        syncAll();
+
+        second.down = true;
+        for (int i = 0; i < 10; i++) {
+            first.filmService.addLike(film.getId(), user.getId());
+            first.filmService.removeLike(film.getId(), user.getId());
+        }
+        syncAll();
+
+        Film renamed = newFilm();
+        renamed.setId(film.getId());
+        renamed.setName("Во время снимка");
+        second.down = false;
+        second.onReceive = () -> {
+            first.filmService.update(renamed);
+            first.filmService.addLike(film.getId(), user.getId());
+        };
+        first.replicator.flush();
+
+        Film replicated = second.filmService.findById(film.getId());
+        assertEquals("Во время снимка", replicated.getName());
+        assertEquals(Set.of(user.getId()), replicated.getLikes());
+    }
+
+    @Test
+    void shouldPullSnapshotWhenNodeRejoins() {
+        User u1 = first.userService.create(newUser("first"));
+        User u2 = first.userService.create(newUser("second"));
+        first.userService.addFriend(u1.getId(), u2.getId());
+        first.userService.removeFriend(u1.getId(), u2.getId());
+        first.userService.addFriend(u1.getId(), u2.getId());
+
+        second.replicator.shutdown();
+        second = new Node(1, "first");
+        nodes.put("second", second);
+        second.replicator.resync();
+
+        assertEquals(Set.of(u2.getId()), second.userService.findById(u1.getId()).getFriends());
+        assertEquals("second", second.userService.findById(u2.getId()).getLogin());
+    }
+
+    private void syncAll() {
+        first.replicator.flush();
+        second.replicator.flush();
+    }
+
+    private static User newUser(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+
+    private static Film newFilm() {
+        Film film = new Film();
+        film.setName("Film");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+
+    private class Node {
+        private final Replicator replicator;
+        private volatile boolean down;
+        private volatile Runnable onReceive;
+        private final FilmService filmService;
+        private final UserService userService;
+
+        Node(int index, String peer) {
+            InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+            InMemoryUserStorage userStorage = new InMemoryUserStorage();
+            JsonCache jsonCache = new JsonCache();
+            UserIndex userIndex = new UserIndex();
+            replicator = new Replicator(filmStorage, userStorage, userIndex, jsonCache, new ReplicationTransport() {
+                @Override
+                public void send(String target, List<ReplicationOp> ops) {
+                    nodes.get(target).receive().apply(ops);
+                }
+
+                @Override
+                public List<ReplicationOp> snapshot(String target) {
+                    return nodes.get(target).receive().snapshot();
+                }
+            }, true, index, 2, List.of(peer), 5, 100, 100);
+            filmService = new FilmService(filmStorage, userStorage, new LikeBuffer(filmStorage, jsonCache, false, 1),
+                    jsonCache, replicator, new SingleFlights(0));
+            userService = new UserService(userStorage, jsonCache, replicator, userIndex, new SingleFlights(0));
+        }
+
+        Replicator receive() {
+            if (down) {
+                throw new IllegalStateException("Узел недоступен");
+            }
+            Runnable action = onReceive;
+            onReceive = null;
+            if (action != null) {
+                action.run();
+            }
+            return replicator;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.cache.JsonCache;
+import ru.yandex.practicum.filmorate.dto.AggregateSnapshot;
+import ru.yandex.practicum.filmorate.dto.UserSummary;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AggregateServiceTest {
+
+    private UserStorage userStorage;
+    private AggregateService aggregateService;
+    private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        FilmStorage filmStorage = new InMemoryFilmStorage();
+        userStorage = new InMemoryUserStorage();
+        LikeBuffer likeBuffer = new LikeBuffer(filmStorage, new JsonCache(), false, 1);
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        aggregateService = new AggregateService(filmStorage, userStorage, likeBuffer, 10, 5, 100, 1_000, 2, clock);
+
+        for (int i = 1; i <= 4; i++) {
+            User user = new User();
+            user.setEmail("mail" + i + "@example.com");
+            user.setLogin("user" + i);
+            user.setName("User " + i);
+            user.setBirthday(LocalDate.of(2000, 1, 1));
+            userStorage.create(user);
+        }
+        userStorage.addFriend(1L, 2L);
+        userStorage.addFriend(1L, 3L);
+        userStorage.addFriend(2L, 4L);
+        userStorage.addFriend(3L, 4L);
+    }
+
+    @Test
+    void shouldComputeFriendCountsAndSuggestions() {
+        AggregateSnapshot snapshot = aggregateService.refresh();
+
+        assertEquals(Map.of(2, 4L), snapshot.friendCounts());
+        assertEquals(List.of(4L), suggestedIds(1L));
+        assertThrows(NotFoundException.class, () -> aggregateService.getSuggestions(99L));
+    }
+
+    @Test
+    void shouldServeCachedSuggestionsUntilTheyExceedMaxStaleness() {
+        assertEquals(List.of(4L), suggestedIds(1L));
+        userStorage.addFriend(1L, 4L);
+
+        now = now.plus(Duration.ofMillis(500));
+        assertEquals(List.of(4L), suggestedIds(1L));
+
+        now = now.plus(Duration.ofMillis(600));
+        assertEquals(List.of(), suggestedIds(1L));
+    }
+
+    @Test
+    void shouldServeSnapshotUntilItExceedsMaxStaleness() {
+        AggregateSnapshot first = aggregateService.refresh();
+        userStorage.addFriend(1L, 4L);
+
+        now = now.plus(Duration.ofMillis(500));
+        assertSame(first, aggregateService.current());
+        assertEquals(500, aggregateService.ageMillis(first));
+
+        now = now.plus(Duration.ofMillis(600));
+        AggregateSnapshot second = aggregateService.current();
+
+        assertNotSame(first, second);
+        assertEquals(Map.of(2, 2L, 3, 2L), second.friendCounts());
+        assertSame(second, aggregateService.current());
+    }
+
+    private List<Long> suggestedIds(Long userId) {
+        return aggregateService.getSuggestions(userId).users().stream().map(UserSummary::id).toList();
+    }
+}
@@ -2,10 +2,14 @@ package ru.yandex.practicum.filmorate.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.cache.JsonCache;
+import ru.yandex.practicum.filmorate.cache.SingleFlights;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.replication.Replicator;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
 import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
@@ -13,19 +17,32 @@ import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class FilmServiceLikesTest {
 
     private FilmService filmService;
+    private FilmStorage filmStorage;
     private UserStorage userStorage;
+    private LikeBuffer likeBuffer;
 
     @BeforeEach
     void setUp() {
-        FilmStorage filmStorage = new InMemoryFilmStorage();
+        filmStorage = new InMemoryFilmStorage();
         userStorage = new InMemoryUserStorage();
-        filmService = new FilmService(filmStorage, userStorage);
+        filmService = newFilmService(false, 1);
+    }
+
+    private FilmService newFilmService(boolean coalescing, int batchSize) {
+        JsonCache jsonCache = new JsonCache();
+        likeBuffer = new LikeBuffer(filmStorage, jsonCache, coalescing, batchSize);
+        return new FilmService(filmStorage, userStorage, likeBuffer, jsonCache, Replicator.disabled(),
+                new SingleFlights(0));
     }
 
     private User newUser(String email, String login) {
@@ -107,6 +124,14 @@ class FilmServiceLikesTest {
         assertThrows(NotFoundException.class, () -> filmService.addLike(999L, u.getId()));
     }
 
+    @Test
+    void shouldThrowNotFoundWhenUpdatingFilmWithoutId() {
+        Film f = newFilm("F");
+        f.setId(null);
+
+        assertThrows(NotFoundException.class, () -> filmService.update(f));
+    }
+
     @Test
     void shouldThrowValidationExceptionWhenCountIsNegativeInGetPopularFilms() {
         assertThrows(
@@ -153,4 +178,164 @@ class FilmServiceLikesTest {
         assertEquals(film1.getId(), result.getId());
         assertEquals(1, result.getLikes().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldShowBufferedLikesOnlyAfterFlush() {
+        filmService = newFilmService(true, 100);
+        User u1 = newUser("mail1@example.com", "user1");
+        User u2 = newUser("mail2@example.com", "user2");
+        Film f1 = newFilm("F1");
+        Film f2 = newFilm("F2");
+
+        filmService.addLike(f2.getId(), u1.getId());
+        filmService.addLike(f2.getId(), u2.getId());
+        filmService.addLike(f1.getId(), u1.getId());
+        filmService.removeLike(f1.getId(), u1.getId());
+        String popularTag = filmService.getFilmsTag("popular-10");
+
+        assertEquals(0, filmService.findById(f2.getId()).getLikes().size());
+        assertEquals(2, likeBuffer.pendingFilms());
+
+        likeBuffer.flushAll();
+
+        assertEquals(List.of(f2.getId(), f1.getId()),
+                filmService.getPopular(10).stream().map(Film::getId).toList());
+        assertEquals(2, filmService.findById(f2.getId()).getLikes().size());
+        assertEquals(0, filmService.findById(f1.getId()).getLikes().size());
+        assertNotEquals(popularTag, filmService.getFilmsTag("popular-10"));
+        assertEquals(0, likeBuffer.pendingFilms());
+    }
+
+    @Test
+    void shouldFlushLikesToStorageWhenBatchIsFull() {
+        filmService = newFilmService(true, 2);
+        User u1 = newUser("mail1@example.com", "user1");
+        User u2 = newUser("mail2@example.com", "user2");
+        Film f = newFilm("Film");
+
+        filmService.addLike(f.getId(), u1.getId());
+        assertEquals(0, filmStorage.findById(f.getId()).orElseThrow().getLikes().size());
+
+        filmService.addLike(f.getId(), u2.getId());
+        assertEquals(2, filmStorage.findById(f.getId()).orElseThrow().getLikes().size());
+        assertEquals(0, likeBuffer.pendingFilms());
+
+        filmService.removeLike(f.getId(), u1.getId());
+        likeBuffer.flush(f.getId());
+        assertEquals(1, filmStorage.findById(f.getId()).orElseThrow().getLikes().size());
+    }
+
+    @Test
+    void shouldNotLoseLikesRecordedWhileBufferIsDrained() throws Exception {
+        filmService = newFilmService(true, 1_000);
+        Film f = newFilm("Film");
+        List<Long> userIds = IntStream.range(0, 2_000)
+                .mapToObj(i -> newUser("mail" + i + "@example.com", "user" + i).getId())
+                .toList();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread flusher = new Thread(() -> {
+            while (!done.get()) {
+                likeBuffer.flushAll();
+            }
+        });
+
+        flusher.start();
+        userIds.parallelStream().forEach(userId -> likeBuffer.addLike(f.getId(), userId));
+        done.set(true);
+        flusher.join();
+        likeBuffer.flushAll();
+
+        assertEquals(userIds.size(), filmStorage.findById(f.getId()).orElseThrow().getLikes().size());
+        assertEquals(0, likeBuffer.pendingFilms());
+    }
+
+    @Test
+    void shouldChangeFilmTagWhenLikeAdded() {
+        User u = newUser("mail1@example.com", "user1");
+        Film f = newFilm("Film");
+
+        String filmTag = filmService.getFilmTag(f.getId());
+        String popularTag = filmService.getFilmsTag("popular-10");
+
+        assertEquals(filmTag, filmService.getFilmTag(f.getId()));
+
+        filmService.addLike(f.getId(), u.getId());
+
+        assertNotEquals(filmTag, filmService.getFilmTag(f.getId()));
+        assertNotEquals(popularTag, filmService.getFilmsTag("popular-10"));
+    }
+
+    @Test
+    void shouldAnswerTagOfWrittenFilmWithoutStorage() {
+        AtomicInteger lookups = new AtomicInteger();
+        filmStorage = new InMemoryFilmStorage() {
+            @Override
+            public Optional<Film> findById(Long id) {
+                lookups.incrementAndGet();
+                return super.findById(id);
+            }
+        };
+        filmService = newFilmService(false, 1);
+        Film f = newFilm("Film");
+        Film direct = new Film();
+        direct.setName("Direct");
+        direct.setReleaseDate(LocalDate.of(2000, 1, 1));
+        direct.setDuration(90);
+        direct = filmStorage.create(direct);
+        lookups.set(0);
+
+        filmService.getFilmTag(f.getId());
+        assertEquals(0, lookups.get());
+
+        filmService.getFilmTag(direct.getId());
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    void shouldThrowNotFoundForTagOfMissingFilm() {
+        assertThrows(NotFoundException.class, () -> filmService.getFilmTag(999L));
+    }
+
+    @Test
+    void shouldKeepLikesAndBumpVersionWhenUpdate() {
+        User u = newUser("mail1@example.com", "user1");
+        Film f = newFilm("Film");
+        filmService.addLike(f.getId(), u.getId());
+
+        Film changed = new Film();
+        changed.setId(f.getId());
+        changed.setName("New name");
+        changed.setDescription("desc");
+        changed.setReleaseDate(LocalDate.of(2000, 1, 1));
+        changed.setDuration(90);
+        changed.setVersion(1L);
+        Film updated = filmService.update(changed);
+
+        assertEquals(2L, updated.getVersion());
+        assertEquals("New name", filmService.findById(f.getId()).getName());
+        assertEquals(1, filmService.findById(f.getId()).getLikes().size());
+    }
+
+    @Test
+    void shouldThrowConflictWhenUpdateWithStaleVersion() {
+        Film f = newFilm("Film");
+
+        Film first = new Film();
+        first.setId(f.getId());
+        first.setName("First");
+        first.setReleaseDate(LocalDate.of(2000, 1, 1));
+        first.setDuration(90);
+        first.setVersion(1L);
+        filmService.update(first);
+
+        Film second = new Film();
+        second.setId(f.getId());
+        second.setName("Second");
+        second.setReleaseDate(LocalDate.of(2000, 1, 1));
+        second.setDuration(90);
+        second.setVersion(1L);
+
+        assertThrows(ConflictException.class, () -> filmService.update(second));
+        assertEquals("First", filmService.findById(f.getId()).getName());
+    }
+}
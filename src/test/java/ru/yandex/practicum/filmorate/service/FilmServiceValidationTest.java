@@ -2,12 +2,17 @@ package ru.yandex.practicum.filmorate.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.cache.JsonCache;
+import ru.yandex.practicum.filmorate.cache.SingleFlights;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.replication.Replicator;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
 import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.validation.DayClock;
+import ru.yandex.practicum.filmorate.validation.FilmValidator;
 
 import java.time.LocalDate;
 
@@ -21,7 +26,9 @@ public class FilmServiceValidationTest {
     void setUp() {
         FilmStorage filmStorage = new InMemoryFilmStorage();
         UserStorage userStorage = new InMemoryUserStorage();
-        filmService = new FilmService(filmStorage, userStorage);
+        JsonCache jsonCache = new JsonCache();
+        filmService = new FilmService(filmStorage, userStorage, new LikeBuffer(filmStorage, jsonCache, false, 1),
+                jsonCache, Replicator.disabled(), new SingleFlights(0));
     }
 
     @Test
@@ -130,5 +137,4 @@ public class FilmServiceValidationTest {
 
                 () -> filmService.create(film), "Duration больше нуля допустимо");
     }
-
 }
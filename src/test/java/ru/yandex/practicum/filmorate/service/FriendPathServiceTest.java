@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.cache.JsonCache;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FriendPathServiceTest {
+
+    private UserStorage userStorage;
+    private JsonCache jsonCache;
+    private FriendPathService friendPathService;
+    private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        userStorage = new InMemoryUserStorage();
+        jsonCache = new JsonCache();
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        friendPathService = new FriendPathService(userStorage, jsonCache, 6, 1_000_000, 4096, 1_000, 1_000, clock);
+
+        for (int i = 1; i <= 3; i++) {
+            createUser(i);
+        }
+        befriend(1L, 2L);
+    }
+
+    @Test
+    void shouldServeGraphSnapshotUntilItExceedsMaxStaleness() {
+        assertEquals(List.of(1L, 2L), pathIds(1L, 2L));
+
+        befriend(2L, 3L);
+        assertThrows(NotFoundException.class, () -> friendPathService.getPath(1L, 3L));
+
+        now = now.plus(Duration.ofMillis(1_001));
+        assertEquals(List.of(1L, 2L, 3L), pathIds(1L, 3L));
+    }
+
+    @Test
+    void shouldRebuildAtOnceWhenUserIsMissingFromSnapshot() {
+        assertEquals(List.of(1L, 2L), pathIds(1L, 2L));
+
+        createUser(4);
+        befriend(2L, 4L);
+
+        assertEquals(List.of(1L, 2L, 4L), pathIds(1L, 4L));
+    }
+
+    @Test
+    void shouldNotRebuildStaleSnapshotForUnknownIds() {
+        assertEquals(List.of(1L, 2L), pathIds(1L, 2L));
+
+        befriend(2L, 3L);
+        assertThrows(NotFoundException.class, () -> friendPathService.getPath(1L, 99L));
+        assertThrows(NotFoundException.class, () -> friendPathService.getPath(99L, 1L));
+
+        assertThrows(NotFoundException.class, () -> friendPathService.getPath(1L, 3L));
+    }
+
+    private List<Long> pathIds(Long userId, Long otherId) {
+        return friendPathService.getPath(userId, otherId).stream().map(User::getId).toList();
+    }
+
+    private void createUser(int i) {
+        User user = new User();
+        user.setEmail("mail" + i + "@example.com");
+        user.setLogin("user" + i);
+        user.setName("User " + i);
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        userStorage.create(user);
+        jsonCache.users().invalidate(user.getId());
+    }
+
+    private void befriend(Long userId, Long friendId) {
+        userStorage.addFriend(userId, friendId);
+        jsonCache.users().invalidate(userId);
+        jsonCache.users().invalidate(friendId);
+    }
+}
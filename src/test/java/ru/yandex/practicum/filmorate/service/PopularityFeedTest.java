@@ -0,0 +1,127 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.Disposable;
+import ru.yandex.practicum.filmorate.cache.JsonCache;
+import ru.yandex.practicum.filmorate.cache.SingleFlights;
+import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.dto.FilmSummary;
+import ru.yandex.practicum.filmorate.dto.PopularityUpdate;
+import ru.yandex.practicum.filmorate.dto.RankChange;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.replication.Replicator;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PopularityFeedTest {
+
+    private FilmService filmService;
+    private UserStorage userStorage;
+    private PopularityFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        JsonCache jsonCache = new JsonCache();
+        userStorage = new InMemoryUserStorage();
+        filmService = new FilmService(filmStorage, userStorage, new LikeBuffer(filmStorage, jsonCache, false, 1),
+                jsonCache, Replicator.disabled(), new SingleFlights(0));
+        feed = new PopularityFeed(filmService, 2, 3_600_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.shutdown();
+    }
+
+    @Test
+    void shouldReportMovedNewAndDroppedFilms() {
+        List<FilmSummary> previous = List.of(summary(1, 5), summary(2, 3), summary(3, 1));
+        List<FilmSummary> current = List.of(summary(2, 6), summary(1, 5), summary(4, 2));
+
+        List<RankChange> changes = PopularityFeed.diff(previous, current);
+
+        assertEquals(List.of(
+                new RankChange(2L, 1, 6),
+                new RankChange(1L, 2, 5),
+                new RankChange(4L, 3, 2),
+                new RankChange(3L, null, 1)), changes);
+        assertTrue(PopularityFeed.diff(current, current).isEmpty());
+    }
+
+    @Test
+    void shouldPublishOnlyWhenRankingChanges() {
+        List<PopularityUpdate> updates = new CopyOnWriteArrayList<>();
+        Disposable subscription = feed.updates().subscribe(updates::add);
+        Film first = newFilm("First");
+        Film second = newFilm("Second");
+        User user = newUser();
+
+        feed.refresh();
+        filmService.addLike(second.getId(), user.getId());
+        feed.refresh();
+        feed.refresh();
+        subscription.dispose();
+
+        assertEquals(2, updates.size());
+        assertEquals(1, updates.get(0).sequence());
+        PopularityUpdate latest = updates.get(1);
+        assertEquals(2, latest.sequence());
+        assertEquals(List.of(second.getId(), first.getId()),
+                latest.ranking().stream().map(FilmSummary::id).toList());
+        assertEquals(List.of(new RankChange(second.getId(), 1, 1), new RankChange(first.getId(), 2, 0)),
+                latest.changes());
+    }
+
+    @Test
+    void shouldStreamLatestUpdateAsServerSentEvent() {
+        FilmController controller = new FilmController(filmService, feed, null);
+        Disposable subscription = feed.updates().subscribe();
+        Film film = newFilm("Film");
+        feed.refresh();
+
+        ServerSentEvent<PopularityUpdate> event = controller.streamPopular()
+                .filter(sse -> sse.data() != null)
+                .blockFirst(Duration.ofSeconds(5));
+        subscription.dispose();
+
+        assertNotNull(event);
+        assertEquals("popular", event.event());
+        assertEquals("1", event.id());
+        assertEquals(film.getId(), event.data().ranking().get(0).id());
+    }
+
+    private static FilmSummary summary(long id, int likes) {
+        return new FilmSummary(id, "Film" + id, null, LocalDate.of(2000, 1, 1), 100, likes);
+    }
+
+    private Film newFilm(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("desc");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return filmService.create(film);
+    }
+
+    private User newUser() {
+        User user = new User();
+        user.setEmail("mail@example.com");
+        user.setLogin("user");
+        user.setName("user");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return userStorage.create(user);
+    }
+}
@@ -2,10 +2,14 @@ package ru.yandex.practicum.filmorate.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.cache.JsonCache;
+import ru.yandex.practicum.filmorate.cache.SingleFlights;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.replication.Replicator;
 import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserIndex;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.time.LocalDate;
@@ -22,7 +26,8 @@ class UserServiceFriendsTest {
     @BeforeEach
     void setUp() {
         UserStorage userStorage = new InMemoryUserStorage();
-        userService = new UserService(userStorage);
+        userService = new UserService(userStorage, new JsonCache(), Replicator.disabled(), new UserIndex(),
+                new SingleFlights(0));
     }
 
     private User newUser(String email, String login, String name) {
@@ -48,6 +53,14 @@ class UserServiceFriendsTest {
         assertTrue(updated2.getFriends().contains(u1.getId()));
     }
 
+    @Test
+    void shouldThrowNotFoundForTagOfMissingUser() {
+        User u1 = newUser("mail1@example.com", "user1", "User1");
+
+        assertNotNull(userService.getUserTag(u1.getId()));
+        assertThrows(NotFoundException.class, () -> userService.getUserTag(999L));
+    }
+
     @Test
     void shouldThrowValidationExceptionWhenAddFriendToSelf() {
         User u1 = newUser("mail1@example.com", "user1", "User1");
@@ -0,0 +1,136 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.cache.JsonCache;
+import ru.yandex.practicum.filmorate.cache.SingleFlights;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.replication.Replicator;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserIndex;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserServiceUniquenessTest {
+
+    private static final int THREADS = 16;
+
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserService(new InMemoryUserStorage(), new JsonCache(), Replicator.disabled(),
+                new UserIndex(), new SingleFlights(0));
+    }
+
+    private static User newUser(String email, String login) {
+        User user = new User();
+        user.setEmail(email);
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+
+    @Test
+    void shouldRebuildIndexFromStoredUsers() {
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        User stored = userStorage.create(newUser("stored@example.com", "stored"));
+        userService = new UserService(userStorage, new JsonCache(), Replicator.disabled(), new UserIndex(),
+                new SingleFlights(0));
+
+        userService.rebuildIndex();
+
+        assertEquals(stored.getId(), userService.findByEmail("stored@example.com").getId());
+        assertEquals(stored.getId(), userService.findByLogin("stored").getId());
+        assertThrows(ConflictException.class, () -> userService.create(newUser("Stored@example.com", "other")));
+    }
+
+    @Test
+    void shouldFindUserByNormalizedEmailAndLogin() {
+        User created = userService.create(newUser("Mail@Example.com", "User1"));
+
+        assertEquals(created.getId(), userService.findByEmail(" mail@example.COM").getId());
+        assertEquals(created.getId(), userService.findByLogin("user1").getId());
+        assertThrows(NotFoundException.class, () -> userService.findByEmail("other@example.com"));
+    }
+
+    @Test
+    void shouldReleaseOldEmailWhenUpdated() {
+        User created = userService.create(newUser("old@example.com", "user1"));
+
+        User changed = newUser("new@example.com", "user1");
+        changed.setId(created.getId());
+        userService.update(changed);
+
+        assertThrows(NotFoundException.class, () -> userService.findByEmail("old@example.com"));
+        assertEquals(created.getId(), userService.findByEmail("new@example.com").getId());
+        assertDoesNotThrow(() -> userService.create(newUser("old@example.com", "user2")));
+    }
+
+    @Test
+    void shouldThrowNotFoundWhenUpdatingUserWithoutId() {
+        userService.create(newUser("first@example.com", "first"));
+
+        assertThrows(NotFoundException.class, () -> userService.update(newUser("first@example.com", "first")));
+    }
+
+    @Test
+    void shouldThrowConflictWhenUpdatingToTakenLogin() {
+        userService.create(newUser("first@example.com", "first"));
+        User second = userService.create(newUser("second@example.com", "second"));
+
+        User changed = newUser("second@example.com", "FIRST");
+        changed.setId(second.getId());
+
+        assertThrows(ConflictException.class, () -> userService.update(changed));
+        assertEquals("second", userService.findById(second.getId()).getLogin());
+        assertEquals(second.getId(), userService.findByEmail("second@example.com").getId());
+    }
+
+    @Test
+    void shouldRegisterExactlyOneUserWhenSameEmailRegisteredConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<User>> results = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            User user = newUser("race@example.com", "racer" + i);
+            results.add(executor.submit(() -> {
+                start.await();
+                return userService.create(user);
+            }));
+        }
+        start.countDown();
+
+        int created = 0;
+        int conflicts = 0;
+        for (Future<User> result : results) {
+            try {
+                result.get(10, TimeUnit.SECONDS);
+                created++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(ConflictException.class, e.getCause());
+                conflicts++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, created);
+        assertEquals(THREADS - 1, conflicts);
+        assertEquals(1, userService.findAll().size());
+        assertNotNull(userService.findByEmail("race@example.com"));
+    }
+}
@@ -0,0 +1,168 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.OffHeapFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.OffHeapUserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapStorageTest {
+
+    @Test
+    void shouldReadBackFilmWhenCreatedAndUpdated() {
+        OffHeapFilmStorage storage = new OffHeapFilmStorage(1024);
+
+        Film film = new Film();
+        film.setName("Фильм");
+        film.setDescription(null);
+        film.setReleaseDate(LocalDate.of(1999, 3, 31));
+        film.setDuration(136);
+        film.getLikes().addAll(Set.of(3L, 1L));
+        Long id = storage.create(film).getId();
+
+        assertEquals(film, storage.findById(id).orElseThrow());
+
+        film.setDescription("Описание");
+        storage.update(film);
+
+        assertEquals(film, storage.findById(id).orElseThrow());
+        assertTrue(storage.findById(id + 1).isEmpty());
+    }
+
+    @Test
+    void shouldKeepLikesWhenArenaIsCompacted() {
+        OffHeapFilmStorage storage = new OffHeapFilmStorage(256);
+
+        for (int i = 0; i < 3; i++) {
+            Film film = new Film();
+            film.setName("Film" + i);
+            film.setReleaseDate(LocalDate.of(2000, 1, 1));
+            film.setDuration(100);
+            storage.create(film);
+        }
+        for (long like = 1; like <= 200; like++) {
+            storage.addLike(2L, like);
+        }
+        storage.addLike(3L, 1L);
+
+        assertEquals(200, storage.findById(2L).orElseThrow().getLikes().size());
+        assertEquals("Film1", storage.findById(2L).orElseThrow().getName());
+        assertEquals(List.of(2L, 3L), storage.findPopular(2).stream().map(Film::getId).toList());
+    }
+
+    @Test
+    void shouldUpdateFriendsOfBothUsers() {
+        OffHeapUserStorage storage = new OffHeapUserStorage(1024);
+
+        for (int i = 0; i < 3; i++) {
+            User user = new User();
+            user.setEmail("mail" + i + "@example.com");
+            user.setLogin("user" + i);
+            user.setName("User " + i);
+            user.setBirthday(LocalDate.of(2000, 1, 1));
+            storage.create(user);
+        }
+
+        storage.addFriend(1L, 3L);
+        storage.addFriend(1L, 2L);
+        storage.removeFriend(1L, 2L);
+
+        assertEquals(Set.of(3L), storage.findById(1L).orElseThrow().getFriends());
+        assertEquals(Set.of(1L), storage.findById(3L).orElseThrow().getFriends());
+        assertEquals("mail2@example.com", storage.findById(3L).orElseThrow().getEmail());
+        assertEquals(3, storage.findAll().size());
+
+        storage.addFriend(2L, 3L);
+
+        assertEquals(Set.of(3L), storage.getCommonFriendIds(1L, 2L));
+        assertEquals(Set.of(), storage.getCommonFriendIds(1L, 3L));
+    }
+
+    @Test
+    void shouldTreatNullIdAsMissing() {
+        OffHeapFilmStorage films = new OffHeapFilmStorage(1024);
+        OffHeapUserStorage users = new OffHeapUserStorage(1024);
+
+        assertTrue(films.findById(null).isEmpty());
+        assertTrue(users.findById(null).isEmpty());
+        assertEquals(0, films.getLikesCount(null));
+        assertTrue(users.getFriendIds(null).isEmpty());
+        assertThrows(NotFoundException.class, () -> films.update(new Film()));
+        assertThrows(NotFoundException.class, () -> users.update(new User()));
+    }
+
+    @Test
+    void shouldCountLikesWithoutLoadingThem() {
+        OffHeapFilmStorage storage = new OffHeapFilmStorage(1024);
+
+        Film film = new Film();
+        film.setName("Фильм");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        Long id = storage.create(film).getId();
+        storage.updateLikes(id, List.of(1L, 2L, 3L), List.of());
+
+        Film read = storage.findById(id).orElseThrow();
+        LazyRelation likes = (LazyRelation) read.getLikes();
+
+        assertEquals(3, read.getLikesCount());
+        assertEquals(3, storage.getLikesCount(id));
+        assertTrue(likes.contains(2L));
+        assertFalse(likes.contains(4L));
+        assertFalse(likes.isLoaded());
+        assertEquals(Set.of(1L, 2L, 3L), storage.getLikes(id));
+    }
+
+    @Test
+    void shouldKeepRelationAsOfReadAndAllowChanges() {
+        OffHeapUserStorage storage = new OffHeapUserStorage(1024);
+        for (int i = 0; i < 3; i++) {
+            User user = new User();
+            user.setEmail("mail" + i + "@example.com");
+            user.setLogin("user" + i);
+            user.setBirthday(LocalDate.of(2000, 1, 1));
+            storage.create(user);
+        }
+        storage.addFriend(1L, 2L);
+
+        User read = storage.findById(1L).orElseThrow();
+        storage.addFriend(1L, 3L);
+
+        assertEquals(1, read.getFriends().size());
+        assertEquals(Set.of(2L), Set.copyOf(read.getFriends()));
+
+        read.getFriends().add(5L);
+        read.getFriends().remove(2L);
+
+        assertEquals(Set.of(5L), Set.copyOf(read.getFriends()));
+        assertEquals(Set.of(2L, 3L), storage.getFriendIds(1L));
+    }
+
+    @Test
+    void shouldReadRelationOnDemandFromArenaOfReadAfterCompaction() {
+        OffHeapFilmStorage storage = new OffHeapFilmStorage(256);
+
+        Film film = new Film();
+        film.setName("Фильм");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        Long id = storage.create(film).getId();
+        storage.updateLikes(id, List.of(1L, 2L), List.of());
+
+        Film read = storage.findById(id).orElseThrow();
+        for (long userId = 3; userId <= 200; userId++) {
+            storage.addLike(id, userId);
+        }
+
+        assertEquals(2, read.getLikesCount());
+        assertEquals(Set.of(1L, 2L), Set.copyOf(read.getLikes()));
+        assertEquals(200, storage.getLikesCount(id));
+    }
+}
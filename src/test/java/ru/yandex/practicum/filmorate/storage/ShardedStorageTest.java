@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.ShardedFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.ShardedUserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedStorageTest {
+
+    @Test
+    void shouldMergeTopFilmsFromAllShardsWhenFindPopular() {
+        ShardedFilmStorage storage = new ShardedFilmStorage(4);
+
+        for (int i = 0; i < 20; i++) {
+            Film film = new Film();
+            film.setName("Film" + i);
+            film.setReleaseDate(LocalDate.of(2000, 1, 1));
+            film.setDuration(100);
+            storage.create(film);
+        }
+        for (long like = 1; like <= 5; like++) {
+            storage.addLike(7L, like);
+        }
+        for (long like = 1; like <= 3; like++) {
+            storage.addLike(13L, like);
+        }
+        storage.addLike(2L, 1L);
+
+        List<Long> popular = storage.findPopular(3).stream().map(Film::getId).toList();
+
+        assertEquals(List.of(7L, 13L, 2L), popular);
+        assertEquals(20, storage.findAll().size());
+    }
+
+    @Test
+    void shouldAddFriendsAcrossShards() {
+        ShardedUserStorage storage = new ShardedUserStorage(8);
+
+        for (int i = 0; i < 10; i++) {
+            User user = new User();
+            user.setEmail("mail" + i + "@example.com");
+            user.setLogin("user" + i);
+            user.setBirthday(LocalDate.of(2000, 1, 1));
+            storage.create(user);
+        }
+
+        storage.addFriend(1L, 9L);
+        storage.addFriend(1L, 4L);
+        storage.removeFriend(1L, 4L);
+
+        assertEquals(Set.of(9L), storage.findById(1L).orElseThrow().getFriends());
+        assertEquals(Set.of(1L), storage.findById(9L).orElseThrow().getFriends());
+        assertTrue(storage.findById(4L).orElseThrow().getFriends().isEmpty());
+    }
+
+    @Test
+    void shouldReturnSnapshotsDetachedFromStoredEntities() {
+        ShardedFilmStorage storage = new ShardedFilmStorage(4);
+        Film film = new Film();
+        film.setName("Film");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        storage.create(film);
+
+        Film read = storage.findById(1L).orElseThrow();
+        Film popular = storage.findPopular(1).iterator().next();
+        storage.addLike(1L, 5L);
+        film.getLikes().add(6L);
+
+        assertTrue(read.getLikes().isEmpty());
+        assertTrue(popular.getLikes().isEmpty());
+        assertEquals(Set.of(5L), storage.findById(1L).orElseThrow().getLikes());
+    }
+
+    @Test
+    void shouldShareRelationBetweenSnapshotsUntilItChanges() {
+        ShardedUserStorage storage = new ShardedUserStorage(4);
+        for (int i = 0; i < 2; i++) {
+            User user = new User();
+            user.setEmail("mail" + i + "@example.com");
+            user.setLogin("user" + i);
+            user.setBirthday(LocalDate.of(2000, 1, 1));
+            storage.create(user);
+        }
+        storage.addFriend(1L, 2L);
+
+        User first = storage.findById(1L).orElseThrow();
+        User second = storage.findById(1L).orElseThrow();
+        storage.removeFriend(1L, 2L);
+
+        assertSame(first.getFriends(), second.getFriends());
+        assertEquals(Set.of(2L), first.getFriends());
+        assertTrue(storage.findById(1L).orElseThrow().getFriends().isEmpty());
+    }
+
+    @Test
+    void shouldTreatNullIdAsMissing() {
+        assertTrue(new ShardedFilmStorage(4).findById(null).isEmpty());
+        assertTrue(new ShardedUserStorage(4).findById(null).isEmpty());
+    }
+}
@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate.storage.offheap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedIdsTest {
+
+    @Test
+    void shouldDecodeAndFindEveryIdAcrossBlocks() {
+        Set<Long> ids = randomIds(new Random(1), 1_000, 100_000);
+        byte[] encoded = CompressedIds.encode(ids);
+
+        assertEquals(ids, CompressedIds.decode(encoded));
+        assertEquals(ids.size(), CompressedIds.size(encoded));
+        for (long id = 0; id <= 100_001; id++) {
+            assertEquals(ids.contains(id), CompressedIds.contains(encoded, id), "id=" + id);
+        }
+        assertTrue(encoded.length < ids.size() * 3, "Размер: " + encoded.length);
+    }
+
+    @Test
+    void shouldIntersectLikeRetainAll() {
+        Random random = new Random(2);
+
+        for (int i = 0; i < 200; i++) {
+            Set<Long> left = randomIds(random, random.nextInt(300), 2_000);
+            Set<Long> right = randomIds(random, random.nextInt(300), 2_000);
+            Set<Long> expected = new TreeSet<>(left);
+            expected.retainAll(right);
+
+            long[] common = CompressedIds.intersect(CompressedIds.encode(left), CompressedIds.encode(right));
+
+            assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), common);
+        }
+    }
+
+    @Test
+    void shouldUpdateLikeAddAllThenRemoveAll() {
+        Random random = new Random(3);
+
+        for (int i = 0; i < 200; i++) {
+            Set<Long> ids = randomIds(random, random.nextInt(300), 2_000);
+            Set<Long> added = randomIds(random, random.nextInt(20), 2_000);
+            Set<Long> removed = randomIds(random, random.nextInt(20), 2_000);
+            Set<Long> expected = new TreeSet<>(ids);
+            expected.addAll(added);
+            expected.removeAll(removed);
+
+            byte[] updated = CompressedIds.update(CompressedIds.encode(ids), added, removed);
+
+            assertEquals(expected, CompressedIds.decode(updated));
+            assertEquals(expected.size(), CompressedIds.size(updated));
+        }
+    }
+
+    @Test
+    void shouldReturnSameArrayWhenUpdateChangesNothing() {
+        byte[] encoded = CompressedIds.encode(List.of(1L, 5L, 9L));
+
+        assertSame(encoded, CompressedIds.update(encoded, List.of(5L), List.of(7L)));
+        assertSame(encoded, CompressedIds.update(encoded, List.of(), List.of()));
+        assertNotSame(encoded, CompressedIds.update(encoded, List.of(), List.of(9L)));
+        assertEquals(Set.of(3L), CompressedIds.decode(CompressedIds.update(null, List.of(3L), List.of())));
+    }
+
+    @Test
+    void shouldHandleEmptyAndMissingSets() {
+        byte[] empty = CompressedIds.encode(List.of());
+
+        assertEquals(Set.of(), CompressedIds.decode(empty));
+        assertEquals(Set.of(), CompressedIds.decode(null));
+        assertFalse(CompressedIds.contains(empty, 1));
+        assertEquals(0, CompressedIds.intersect(empty, CompressedIds.encode(List.of(1L))).length);
+        assertEquals(0, CompressedIds.intersect(null, empty).length);
+    }
+
+    private static Set<Long> randomIds(Random random, int count, int bound) {
+        Set<Long> ids = new TreeSet<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(1L + random.nextInt(bound));
+        }
+        return ids;
+    }
+}